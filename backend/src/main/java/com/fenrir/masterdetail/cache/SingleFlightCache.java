@@ -0,0 +1,176 @@
+package com.fenrir.masterdetail.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache where concurrent misses for the same key share a single load, the callers that arrive
+ * while it is in flight wait for its result. Shortly before an entry expires one caller at a time may reload
+ * it early, with a probability that grows towards expiry and with the cost of the last load (XFetch), so hot
+ * keys are refreshed before they expire for everybody at once. A zero time to live only coalesces loads.
+ */
+public class SingleFlightCache<K, V> {
+    private static final double EARLY_REFRESH_BETA = 1.0;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SingleFlightCache(Duration ttl, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Stats {
+        private final long hits;
+        private final long loads;
+        private final long coalesced;
+        private final long earlyRefreshes;
+        private final long failures;
+        private final int size;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isFresh(now)) {
+            if (shouldRefreshEarly(entry, now) && entry.refreshing.compareAndSet(false, true)) {
+                earlyRefreshes.increment();
+                return refresh(key, loader, entry);
+            }
+            hits.increment();
+            return entry.future.join();
+        }
+
+        Entry<V> created = new Entry<>();
+        Entry<V> current = entries.compute(key, (k, existing) ->
+                existing != null && (!existing.future.isDone() || existing.isFresh(now)) ? existing : created);
+        if (current != created) {
+            if (current.future.isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return await(current);
+        }
+
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return load(key, loader, created);
+    }
+
+    public void invalidate(K key) {
+        // A load in flight for the key completes for its waiters but is no longer stored
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Stats getStats() {
+        return new Stats(
+                hits.sum(), loads.sum(), coalesced.sum(), earlyRefreshes.sum(), failures.sum(), entries.size()
+        );
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader, Entry<V> entry) {
+        try {
+            V value = compute(key, loader, entry);
+            if (ttlNanos == 0) {
+                entries.remove(key, entry);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private V refresh(K key, Function<? super K, ? extends V> loader, Entry<V> stale) {
+        Entry<V> refreshed = new Entry<>();
+        try {
+            V value = compute(key, loader, refreshed);
+            entries.replace(key, stale, refreshed);
+            return value;
+        } catch (RuntimeException e) {
+            // The stale value is still within its time to live, a later caller can try again
+            stale.refreshing.set(false);
+            return stale.future.join();
+        }
+    }
+
+    private V compute(K key, Function<? super K, ? extends V> loader, Entry<V> entry) {
+        loads.increment();
+        long startedAt = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            throw e;
+        }
+        long loadedAt = System.nanoTime();
+        entry.loadNanos = loadedAt - startedAt;
+        entry.expiresAt = loadedAt + ttlNanos;
+        entry.future.complete(value);
+        return value;
+    }
+
+    private boolean shouldRefreshEarly(Entry<V> entry, long now) {
+        double jitter = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + entry.loadNanos * EARLY_REFRESH_BETA * jitter >= entry.expiresAt;
+    }
+
+    private V await(Entry<V> entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.future.isDone() && !entry.isFresh(now));
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().future.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long loadNanos;
+        private volatile long expiresAt;
+
+        boolean isFresh(long now) {
+            return future.isDone() && !future.isCompletedExceptionally() && now - expiresAt < 0;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class PoolStats {
+    private final String poolName;
+    private final int maximumPoolSize;
+    private final long connectionTimeoutMillis;
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int threadsAwaitingConnection;
+
+    static PoolStats of(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new PoolStats(
+                dataSource.getPoolName(),
+                dataSource.getMaximumPoolSize(),
+                dataSource.getConnectionTimeout(),
+                pool != null ? pool.getActiveConnections() : 0,
+                pool != null ? pool.getIdleConnections() : 0,
+                pool != null ? pool.getTotalConnections() : 0,
+                pool != null ? pool.getThreadsAwaitingConnection() : 0
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections requested inside read-only transactions to one of the replicas and everything else
+ * to the primary. Has to be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * otherwise the connection is fetched before the transaction is marked as read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final ReplicaSelectionStrategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            ReplicaSelectionStrategy strategy) {
+
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaKeys = List.copyOf(this.replicas.keySet());
+        this.strategy = strategy;
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> roundRobin();
+            case LEAST_BUSY -> leastBusy();
+        };
+    }
+
+    @Override
+    public void close() {
+        replicas.values().stream()
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .forEach(HikariDataSource::close);
+    }
+
+    private String roundRobin() {
+        int index = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        return replicaKeys.get(index);
+    }
+
+    private String leastBusy() {
+        String selected = null;
+        int selectedActive = Integer.MAX_VALUE;
+        for (String key : replicaKeys) {
+            int active = activeConnections(replicas.get(key));
+            if (active < selectedActive) {
+                selected = key;
+                selectedActive = active;
+            }
+        }
+        return selected;
+    }
+
+    private int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+        return 0;
+    }
+}
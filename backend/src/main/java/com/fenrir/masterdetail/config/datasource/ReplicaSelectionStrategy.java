@@ -0,0 +1,6 @@
+package com.fenrir.masterdetail.config.datasource;
+
+public enum ReplicaSelectionStrategy {
+    ROUND_ROBIN,
+    LEAST_BUSY
+}
@@ -0,0 +1,18 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method, or every method of the annotated class, on the connection pool of the given
+ * workload. Work that is not annotated runs on the interactive pool.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+    WorkloadType value();
+}
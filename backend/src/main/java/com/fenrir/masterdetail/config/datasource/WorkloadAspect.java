@@ -0,0 +1,37 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Marks the thread with the workload of the {@link Workload} annotated method it enters. Ordered ahead of the
+ * transaction interceptor, so the workload is known before the transaction asks for a connection.
+ */
+@Aspect
+@Order(0)
+public class WorkloadAspect {
+
+    @Around("@annotation(com.fenrir.masterdetail.config.datasource.Workload) "
+            + "|| @within(com.fenrir.masterdetail.config.datasource.Workload)")
+    public Object runAsWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), Workload.class);
+        }
+        if (workload == null) {
+            return joinPoint.proceed();
+        }
+
+        WorkloadType previous = WorkloadContext.enter(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
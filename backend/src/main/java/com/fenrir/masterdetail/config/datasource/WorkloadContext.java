@@ -0,0 +1,30 @@
+package com.fenrir.masterdetail.config.datasource;
+
+public final class WorkloadContext {
+    private static final ThreadLocal<WorkloadType> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadType current() {
+        WorkloadType workload = CURRENT.get();
+        return workload != null ? workload : WorkloadType.INTERACTIVE;
+    }
+
+    /**
+     * Switches the thread to the given workload and returns the one to hand to {@link #restore} afterwards.
+     */
+    public static WorkloadType enter(WorkloadType workload) {
+        WorkloadType previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    public static void restore(WorkloadType previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(WorkloadPoolProperties.class)
+@ConditionalOnProperty(prefix = "bookly.datasource.workloads", name = "enabled", havingValue = "true")
+public class WorkloadPoolConfiguration {
+
+    @Bean
+    public WorkloadAspect workloadAspect() {
+        return new WorkloadAspect();
+    }
+
+    @Bean
+    public WorkloadRoutingDataSource workloadRoutingDataSource(
+            DataSourceProperties dataSourceProperties,
+            WorkloadPoolProperties properties) {
+
+        Map<WorkloadType, DataSource> pools = new EnumMap<>(WorkloadType.class);
+        pools.put(WorkloadType.INTERACTIVE, createPool(WorkloadType.INTERACTIVE, dataSourceProperties, properties.getInteractive()));
+        pools.put(WorkloadType.BATCH, createPool(WorkloadType.BATCH, dataSourceProperties, properties.getBatch()));
+        pools.put(WorkloadType.ADMIN, createPool(WorkloadType.ADMIN, dataSourceProperties, properties.getAdmin()));
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    /**
+     * With read/write routing enabled the workload pools take the place of its primary pool instead.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "bookly.datasource.routing", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public DataSource dataSource(WorkloadRoutingDataSource workloadRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(workloadRoutingDataSource);
+    }
+
+    private HikariDataSource createPool(
+            WorkloadType workload,
+            DataSourceProperties dataSourceProperties,
+            WorkloadPoolProperties.Pool pool) {
+
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(workload.name().toLowerCase(Locale.ROOT));
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        return dataSource;
+    }
+}
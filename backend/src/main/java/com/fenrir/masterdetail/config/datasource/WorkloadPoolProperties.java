@@ -0,0 +1,31 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookly.datasource.workloads")
+public class WorkloadPoolProperties {
+    private boolean enabled;
+    private Pool interactive = new Pool(10, 2, Duration.ofSeconds(2), Duration.ofMinutes(10), Duration.ofMinutes(30));
+    private Pool batch = new Pool(3, 0, Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofMinutes(30));
+    private Pool admin = new Pool(2, 0, Duration.ofSeconds(5), Duration.ofMinutes(2), Duration.ofMinutes(30));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        private int maximumPoolSize;
+        private int minimumIdle;
+        private Duration connectionTimeout;
+        private Duration idleTimeout;
+        private Duration maxLifetime;
+    }
+}
@@ -0,0 +1,53 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives each {@link WorkloadType} a connection pool of its own, picked by the workload the current thread
+ * runs as, so batch or admin work that holds connections for long cannot starve interactive requests.
+ * A workload without a pool of its own falls back to the interactive one.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private final Map<WorkloadType, DataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadType, DataSource> pools) {
+        if (!pools.containsKey(WorkloadType.INTERACTIVE)) {
+            throw new IllegalArgumentException("An interactive pool is required");
+        }
+        this.pools = new EnumMap<>(pools);
+
+        setTargetDataSources(new HashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(WorkloadType.INTERACTIVE));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    public Map<WorkloadType, PoolStats> getStats() {
+        Map<WorkloadType, PoolStats> stats = new EnumMap<>(WorkloadType.class);
+        pools.forEach((workload, pool) -> {
+            if (pool instanceof HikariDataSource hikari) {
+                stats.put(workload, PoolStats.of(hikari));
+            }
+        });
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        pools.values().stream()
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .forEach(HikariDataSource::close);
+    }
+}
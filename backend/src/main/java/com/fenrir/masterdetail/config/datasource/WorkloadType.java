@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.config.datasource;
+
+public enum WorkloadType {
+    INTERACTIVE,
+    BATCH,
+    ADMIN
+}
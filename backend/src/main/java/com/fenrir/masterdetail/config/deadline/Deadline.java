@@ -0,0 +1,29 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import java.time.Duration;
+
+public final class Deadline {
+    private final Duration timeout;
+    private final long expiresAt;
+
+    private Deadline(Duration timeout, long expiresAt) {
+        this.timeout = timeout;
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(timeout, System.nanoTime() + timeout.toNanos());
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public long remainingNanos() {
+        return expiresAt - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds every transaction started under a request deadline by the time the request has left. Spring hands
+ * the transaction timeout to JPA queries as {@code javax.persistence.query.timeout} and to JDBC statements
+ * as their query timeout, so a statement still running when the deadline passes is cancelled by the driver.
+ * A transaction is not started at all once the deadline has passed.
+ */
+public class DeadlineAwareJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        DeadlineContext.checkNotExpired();
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Optional<Deadline> deadline = DeadlineContext.current();
+        if (deadline.isEmpty()) {
+            return timeout;
+        }
+
+        // Statement timeouts are whole seconds, rounding down would turn a deadline under a second into none
+        long remainingNanos = Math.max(0, deadline.get().remainingNanos());
+        int remaining = (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remaining : Math.min(timeout, remaining);
+    }
+}
@@ -0,0 +1,38 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineConfiguration {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+
+        DeadlineAwareJpaTransactionManager transactionManager = new DeadlineAwareJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilterRegistration(DeadlineProperties properties) {
+        DeadlineFilter filter = new DeadlineFilter(
+                properties.getHeader(),
+                properties.getDefaultTimeout(),
+                properties.getEndpoints()
+        );
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(filter);
+        // Ahead of Spring Security, so loading the authenticated user counts against the deadline too
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
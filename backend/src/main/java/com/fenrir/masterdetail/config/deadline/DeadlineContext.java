@@ -0,0 +1,60 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import com.fenrir.masterdetail.exception.DeadlineExceededException;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+public final class DeadlineContext {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Puts the thread under the given deadline and returns the one to hand to {@link #restore} afterwards.
+     */
+    public static Deadline enter(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous;
+    }
+
+    public static void restore(Deadline previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static void checkNotExpired() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(
+                    "Request deadline of " + deadline.getTimeout().toMillis() + " ms exceeded");
+        }
+    }
+
+    /**
+     * Carries the current deadline over to the thread that runs the task.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = enter(deadline);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
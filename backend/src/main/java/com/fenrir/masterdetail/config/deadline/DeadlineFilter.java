@@ -0,0 +1,90 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Puts each API request under a deadline, the endpoint's timeout or the shorter one a client asks for in
+ * the timeout header, in milliseconds. A client cannot ask for more time than the endpoint allows.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final String header;
+    private final Duration defaultTimeout;
+    private final Map<String, Duration> endpoints;
+
+    public DeadlineFilter(String header, Duration defaultTimeout, Map<String, Duration> endpoints) {
+        this.header = header;
+        this.defaultTimeout = defaultTimeout;
+        this.endpoints = new LinkedHashMap<>(endpoints);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Duration timeout = determineTimeout(request);
+        if (timeout.isZero() || timeout.isNegative()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Deadline previous = DeadlineContext.enter(Deadline.after(timeout));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DeadlineContext.restore(previous);
+        }
+    }
+
+    Duration determineTimeout(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Duration timeout = endpoints.entrySet().stream()
+                .filter(endpoint -> pathMatcher.match(endpoint.getKey(), path))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(defaultTimeout);
+
+        Duration requested = parseRequestedTimeout(request.getHeader(header));
+        if (requested == null) {
+            return timeout;
+        }
+        return timeout.isZero() || requested.compareTo(timeout) < 0 ? requested : timeout;
+    }
+
+    private Duration parseRequestedTimeout(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            long millis = Long.parseLong(value.trim());
+            return millis > 0 ? Duration.ofMillis(millis) : null;
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed {} header: {}", header, value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookly.deadline")
+public class DeadlineProperties {
+    private boolean enabled = true;
+    private String header = "X-Request-Timeout";
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+    /**
+     * Timeouts for endpoints matching an Ant path pattern, checked in order before the default. A zero
+     * timeout leaves the endpoint without a deadline.
+     */
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+}
@@ -0,0 +1,123 @@
+package com.fenrir.masterdetail.config.limit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to observed latency (additive increase, multiplicative decrease). A request
+ * slower than the latency threshold backs the limit off, while a fast one raises it by one as long as at least
+ * half of the limit is in use, so an idle limiter does not grow past what it has ever been tested with.
+ */
+public class AimdLimiter {
+    private static final double REJECT_RATE_SMOOTHING = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder backoffs = new LongAdder();
+    private final AtomicLong rejectRate = new AtomicLong(Double.doubleToLongBits(0.0));
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limit bounds must satisfy 1 <= min <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Stats {
+        private final int limit;
+        private final int inFlight;
+        private final long accepted;
+        private final long rejected;
+        private final long backoffs;
+        private final double rejectRate;
+    }
+
+    public Optional<Permit> tryAcquire() {
+        if (inFlight.incrementAndGet() > limit.get()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            updateRejectRate(1.0);
+            return Optional.empty();
+        }
+        accepted.increment();
+        updateRejectRate(0.0);
+        return Optional.of(new Permit(System.nanoTime()));
+    }
+
+    public Stats getStats() {
+        return new Stats(
+                limit.get(),
+                inFlight.get(),
+                accepted.sum(),
+                rejected.sum(),
+                backoffs.sum(),
+                Double.longBitsToDouble(rejectRate.get())
+        );
+    }
+
+    private void onSample(long latencyNanos, int inFlightBeforeRelease) {
+        if (latencyNanos > latencyThresholdNanos) {
+            backoffs.increment();
+            limit.updateAndGet(current -> Math.max(minLimit, Math.min(current - 1, (int) (current * backoffRatio))));
+        } else if (inFlightBeforeRelease * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    private void updateRejectRate(double sample) {
+        rejectRate.updateAndGet(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(current + REJECT_RATE_SMOOTHING * (sample - current));
+        });
+    }
+
+    public class Permit {
+        private final long startedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Frees the slot and feeds the request's latency into the limit.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                onSample(System.nanoTime() - startedAt, inFlight.getAndDecrement());
+            }
+        }
+
+        /**
+         * Frees the slot without using the request's latency, for requests whose duration says nothing about
+         * load, such as streamed responses.
+         */
+        public void ignore() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
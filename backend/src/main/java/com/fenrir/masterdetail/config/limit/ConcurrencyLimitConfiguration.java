@@ -0,0 +1,42 @@
+package com.fenrir.masterdetail.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.security.jwt.JwtUtils;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(
+            ConcurrencyLimitProperties properties,
+            ObjectMapper objectMapper,
+            JwtUtils jwtUtils) {
+
+        Map<EndpointClass, AimdLimiter> limiters = new EnumMap<>(EndpointClass.class);
+        limiters.put(EndpointClass.AUTH, properties.getAuth().toLimiter());
+        limiters.put(EndpointClass.PUBLIC_READ, properties.getPublicRead().toLimiter());
+        limiters.put(EndpointClass.WRITE, properties.getWrite().toLimiter());
+        return new ConcurrencyLimitFilter(limiters, properties.getRetryAfter(), objectMapper, jwtUtils);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(
+            ConcurrencyLimitFilter concurrencyLimitFilter,
+            ConcurrencyLimitProperties properties) {
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(concurrencyLimitFilter);
+        // Ahead of the deadline filter and Spring Security, so a shed request never loads its user
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
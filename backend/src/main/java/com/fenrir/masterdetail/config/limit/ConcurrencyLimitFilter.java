@@ -0,0 +1,129 @@
+package com.fenrir.masterdetail.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.exception.ErrorMessage;
+import com.fenrir.masterdetail.model.Role;
+import com.fenrir.masterdetail.security.jwt.JwtUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sheds API requests above the adaptive concurrency limit of their endpoint class with 503 and Retry-After,
+ * instead of letting them queue in Tomcat until they time out. Runs ahead of the security filter chain so that a
+ * shed request never loads its user, admin requests are recognized by the roles claim of their token instead.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Map<EndpointClass, AimdLimiter> limiters;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final JwtUtils jwtUtils;
+
+    public ConcurrencyLimitFilter(
+            Map<EndpointClass, AimdLimiter> limiters,
+            Duration retryAfter,
+            ObjectMapper objectMapper,
+            JwtUtils jwtUtils) {
+
+        this.limiters = new EnumMap<>(limiters);
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.objectMapper = objectMapper;
+        this.jwtUtils = jwtUtils;
+    }
+
+    public Map<EndpointClass, AimdLimiter.Stats> getStats() {
+        Map<EndpointClass, AimdLimiter.Stats> stats = new EnumMap<>(EndpointClass.class);
+        limiters.forEach((endpointClass, limiter) -> stats.put(endpointClass, limiter.getStats()));
+        return stats;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        AimdLimiter limiter = limiters.get(EndpointClass.of(request));
+        if (limiter == null || isAdmin(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<AimdLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            reject(response);
+            return;
+        }
+
+        AimdLimiter.Permit permit = acquired.get();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // The slot stays taken until the response is complete, but a streamed response's duration is
+                // not a latency sample
+                request.getAsyncContext().addListener(new PermitReleasingListener(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private boolean isAdmin(HttpServletRequest request) {
+        String token = jwtUtils.parseJwtToken(request);
+        return token != null && jwtUtils.hasRole(token, Role.ROLE_ADMIN.name());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ErrorMessage message = new ErrorMessage(
+                HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                LocalDateTime.now(),
+                "Server is overloaded, try again later"
+        );
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), message);
+    }
+
+    private record PermitReleasingListener(AimdLimiter.Permit permit) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.ignore();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.ignore();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.ignore();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
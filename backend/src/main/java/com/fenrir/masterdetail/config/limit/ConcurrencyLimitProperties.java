@@ -0,0 +1,36 @@
+package com.fenrir.masterdetail.config.limit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookly.limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Limit auth = new Limit(20, 2, 100, 0.9, Duration.ofSeconds(1));
+    private Limit publicRead = new Limit(100, 10, 1000, 0.9, Duration.ofMillis(500));
+    private Limit write = new Limit(50, 5, 500, 0.9, Duration.ofSeconds(1));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private double backoffRatio;
+        private Duration latencyThreshold;
+
+        AimdLimiter toLimiter() {
+            return new AimdLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.fenrir.masterdetail.config.limit;
+
+import javax.servlet.http.HttpServletRequest;
+
+public enum EndpointClass {
+    AUTH,
+    PUBLIC_READ,
+    WRITE;
+
+    static EndpointClass of(String path, String method) {
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        return switch (method) {
+            case "GET", "HEAD", "OPTIONS" -> PUBLIC_READ;
+            default -> WRITE;
+        };
+    }
+
+    static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return of(path, request.getMethod());
+    }
+}
@@ -1,20 +1,45 @@
 package com.fenrir.masterdetail.controller;
 
+import com.fenrir.masterdetail.dto.AuthorBookCountDTO;
+import com.fenrir.masterdetail.dto.BookCountersDTO;
+import com.fenrir.masterdetail.dto.BookDetailDTO;
+import com.fenrir.masterdetail.dto.ExportFormat;
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+import com.fenrir.masterdetail.io.RecordReader;
+import com.fenrir.masterdetail.io.RecordReaders;
 import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.search.Suggestion;
+import com.fenrir.masterdetail.service.AuthorService;
+import com.fenrir.masterdetail.service.BookCounterService;
+import com.fenrir.masterdetail.service.BookDetailService;
+import com.fenrir.masterdetail.service.BookExportService;
+import com.fenrir.masterdetail.service.BookImportService;
+import com.fenrir.masterdetail.service.BookSearchService;
 import com.fenrir.masterdetail.service.BookService;
+import com.fenrir.masterdetail.service.HotReadService;
+import com.fenrir.masterdetail.service.StreamingReadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @AllArgsConstructor
 @RestController
@@ -24,20 +49,100 @@ import java.net.URI;
 )
 public class BookController {
     private BookService bookService;
+    private BookDetailService bookDetailService;
+    private BookCounterService bookCounterService;
+    private HotReadService hotReadService;
+    private BookImportService bookImportService;
+    private BookExportService bookExportService;
+    private BookSearchService bookSearchService;
+    private AuthorService authorService;
+    private StreamingReadService streamingReadService;
+    private RecordReaders recordReaders;
 
     @GetMapping(path = "/{id}")
     public ResponseEntity<?> getBookById(@PathVariable("id") Long id) {
-        Book book = bookService.get(id);
-        return ResponseEntity.ok(book);
+        Book book = hotReadService.getBook(id);
+        bookCounterService.recordView(id);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(book.getVersion()))
+                .body(book);
+    }
+
+    @GetMapping(path = "/{id}/counters")
+    public ResponseEntity<?> getBookCounters(@PathVariable("id") Long id) {
+        BookCountersDTO counters = bookCounterService.getCounters(id);
+        return ResponseEntity.ok(counters);
+    }
+
+    @GetMapping(path = "/{id}/detail")
+    public ResponseEntity<?> getBookDetail(
+            @PathVariable("id") Long id,
+            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            Principal principal) {
+        BookDetailDTO detail = bookDetailService.get(id, pageable, principal != null ? principal.getName() : null);
+        bookCounterService.recordView(id);
+        return ResponseEntity.ok(detail);
     }
 
     @GetMapping
     public ResponseEntity<?> getAllBooks(
-            @PageableDefault(sort = "title", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<Book> books = bookService.getAll(pageable);
+            @PageableDefault(sort = "title", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(name = "author", required = false) String author,
+            @RequestParam(name = "genre", required = false) List<String> genres,
+            @RequestParam(name = "genreMatch", defaultValue = "any") String genreMatch) {
+        Page<Book> books = bookService.getAll(pageable, author, genres, genreMatch.equalsIgnoreCase("all"));
+        return ResponseEntity.ok(books);
+    }
+
+    @GetMapping(produces = RecordReaders.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks(
+            @RequestParam(name = "afterId", defaultValue = "0") long afterId) {
+        StreamingResponseBody body = output -> streamingReadService.streamBooks(afterId, output);
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.NDJSON.getMediaType())
+                .body(body);
+    }
+
+    @GetMapping(path = "/authors")
+    public ResponseEntity<?> getAllAuthors(@PageableDefault(sort = "author") Pageable pageable) {
+        Page<AuthorBookCountDTO> authors = authorService.getAll(pageable);
+        return ResponseEntity.ok(authors);
+    }
+
+    @GetMapping(path = "/search")
+    public ResponseEntity<?> searchBooks(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "fuzzy", defaultValue = "false") boolean fuzzy) {
+        List<Book> books = bookSearchService.search(query, size, fuzzy);
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping(path = "/suggest")
+    public ResponseEntity<?> suggestBooks(
+            @RequestParam(name = "prefix") String prefix,
+            @RequestParam(name = "size", defaultValue = "10") int size) {
+        List<Suggestion> suggestions = bookSearchService.suggest(prefix, size);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping(
+            path = "/export",
+            produces = { RecordReaders.APPLICATION_NDJSON_VALUE, RecordReaders.TEXT_CSV_VALUE }
+    )
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "updatedSince", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = output -> bookExportService.export(exportFormat, updatedSince, output);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(body);
+    }
+
     @Operation(security = @SecurityRequirement(name = "bearerAuth"))
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> postBook(@RequestBody Book book, UriComponentsBuilder builder) {
@@ -49,11 +154,32 @@ public class BookController {
         return ResponseEntity.created(location).body(book);
     }
 
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @PostMapping(
+            path = "/import",
+            consumes = { RecordReaders.TEXT_CSV_VALUE, RecordReaders.APPLICATION_NDJSON_VALUE }
+    )
+    public ResponseEntity<?> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException, HttpMediaTypeNotSupportedException {
+
+        try (RecordReader reader = recordReaders.open(contentType, body)) {
+            ImportSummaryDTO summary = bookImportService.importBooks(reader);
+            return ResponseEntity.ok(summary);
+        }
+    }
+
     @Operation(security = @SecurityRequirement(name = "bearerAuth"))
     @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> updateBook(@PathVariable("id") Long id, @RequestBody Book book) {
-        book = bookService.update(id, book);
-        return ResponseEntity.ok(book);
+    public ResponseEntity<?> updateBook(
+            @PathVariable("id") Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Book book) {
+
+        book = bookService.update(id, book, EntityTags.requiredVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(book.getVersion()))
+                .body(book);
     }
 
     @Operation(security = @SecurityRequirement(name = "bearerAuth"))
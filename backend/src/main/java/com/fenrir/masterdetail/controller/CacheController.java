@@ -0,0 +1,31 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.cache.SingleFlightCache;
+import com.fenrir.masterdetail.service.HotReadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping(
+        path = "/api/caches",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class CacheController {
+    private HotReadService hotReadService;
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping
+    public ResponseEntity<?> getCacheStats() {
+        Map<String, SingleFlightCache.Stats> stats = hotReadService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+}
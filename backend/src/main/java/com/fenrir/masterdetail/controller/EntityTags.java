@@ -0,0 +1,35 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.exception.PreconditionFailedException;
+
+/**
+ * Entity tags of versioned resources are their version in quotes, an {@code If-Match} header naming one turns
+ * an update into a conditional one.
+ */
+final class EntityTags {
+    private EntityTags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Version an {@code If-Match} header requires, null when there is no header or it accepts any version.
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses strong comparison, so weak tags and tags this API did not issue never match
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException(String.format("If-Match %s does not match the current version", tag));
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException(String.format("If-Match %s does not match the current version", tag));
+        }
+    }
+}
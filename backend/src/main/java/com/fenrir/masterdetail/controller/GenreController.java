@@ -0,0 +1,62 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.model.Genre;
+import com.fenrir.masterdetail.service.GenreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.validation.Valid;
+import java.net.URI;
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping(
+        path = "/api/genres",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class GenreController {
+    private GenreService genreService;
+
+    @GetMapping
+    public ResponseEntity<?> getAllGenres() {
+        List<Genre> genres = genreService.getAll();
+        return ResponseEntity.ok(genres);
+    }
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> postGenre(@Valid @RequestBody Genre genre, UriComponentsBuilder builder) {
+        genre = genreService.create(genre);
+        URI location = builder.replacePath("/api/genres/{id}")
+                .buildAndExpand(genre.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(genre);
+    }
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteGenreById(@PathVariable("id") Long id) {
+        genreService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @PutMapping("/{id}/books/{bookId}")
+    public ResponseEntity<?> assignGenre(@PathVariable("id") Long id, @PathVariable("bookId") Long bookId) {
+        genreService.assign(id, bookId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @DeleteMapping("/{id}/books/{bookId}")
+    public ResponseEntity<?> unassignGenre(@PathVariable("id") Long id, @PathVariable("bookId") Long bookId) {
+        genreService.unassign(id, bookId);
+        return ResponseEntity.noContent().build();
+    }
+}
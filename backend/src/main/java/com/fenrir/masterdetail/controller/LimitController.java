@@ -0,0 +1,32 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.config.limit.AimdLimiter;
+import com.fenrir.masterdetail.config.limit.ConcurrencyLimitFilter;
+import com.fenrir.masterdetail.config.limit.EndpointClass;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping(
+        path = "/api/limits",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class LimitController {
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping
+    public ResponseEntity<?> getLimitStats() {
+        Map<EndpointClass, AimdLimiter.Stats> stats = concurrencyLimitFilter.getStats();
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,36 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.config.datasource.PoolStats;
+import com.fenrir.masterdetail.config.datasource.WorkloadRoutingDataSource;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping(
+        path = "/api/pools",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class PoolController {
+    private ObjectProvider<WorkloadRoutingDataSource> workloadRoutingDataSource;
+
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping
+    public ResponseEntity<?> getPoolStats() {
+        Map<WorkloadType, PoolStats> stats = workloadRoutingDataSource.stream()
+                .findFirst()
+                .map(WorkloadRoutingDataSource::getStats)
+                .orElse(Map.of());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -1,9 +1,19 @@
 package com.fenrir.masterdetail.controller;
 
+import com.fenrir.masterdetail.dto.CursorPageDTO;
+import com.fenrir.masterdetail.dto.ExportFormat;
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
 import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
+import com.fenrir.masterdetail.dto.ReviewWriteAcceptedDTO;
 import com.fenrir.masterdetail.dto.StatisticsDTO;
-import com.fenrir.masterdetail.model.Review;
+import com.fenrir.masterdetail.io.RecordReader;
+import com.fenrir.masterdetail.io.RecordReaders;
+import com.fenrir.masterdetail.service.HotReadService;
+import com.fenrir.masterdetail.service.ReviewImportService;
 import com.fenrir.masterdetail.service.ReviewService;
+import com.fenrir.masterdetail.service.ReviewWriteBehindService;
+import com.fenrir.masterdetail.service.StreamingReadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.AllArgsConstructor;
@@ -11,10 +21,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @AllArgsConstructor
 @RestController
@@ -24,35 +40,74 @@ import org.springframework.web.bind.annotation.*;
 )
 public class ReviewController {
     private ReviewService reviewService;
+    private HotReadService hotReadService;
+    private ReviewImportService reviewImportService;
+    private ReviewWriteBehindService reviewWriteBehindService;
+    private StreamingReadService streamingReadService;
+    private RecordReaders recordReaders;
 
     @GetMapping(path = "/{username}/{bookId}")
     public ResponseEntity<?> getReviewByUsernameAndBookId(
             @PathVariable("username") String username,
-            @PathVariable("bookId") Long bookId) {
+            @PathVariable("bookId") Long bookId,
+            @RequestHeader(name = ReviewWriteBehindService.WRITE_TOKEN_HEADER, required = false) String writeToken) {
 
-        Review review = reviewService.get(username, bookId);
-        return ResponseEntity.ok(review);
+        reviewWriteBehindService.awaitApplied(writeToken);
+        ReviewResponseDTO review = reviewService.get(username, bookId);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(review.getVersion()))
+                .body(review);
     }
 
     @GetMapping(path = "/book/{bookId}")
     public ResponseEntity<?> getReviewByBookId(
             @PathVariable("bookId") Long bookId,
-            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<Review> reviews = reviewService.getAll(bookId, pageable);
+            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestHeader(name = ReviewWriteBehindService.WRITE_TOKEN_HEADER, required = false) String writeToken) {
+        reviewWriteBehindService.awaitApplied(writeToken);
+        Page<ReviewResponseDTO> reviews = reviewService.getAll(bookId, pageable);
         return ResponseEntity.ok(reviews);
     }
 
+    @GetMapping(path = "/book/{bookId}", produces = RecordReaders.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamReviewsByBookId(@PathVariable("bookId") Long bookId) {
+        StreamingResponseBody body = output -> streamingReadService.streamReviews(bookId, output);
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.NDJSON.getMediaType())
+                .body(body);
+    }
+
     @GetMapping(path = "/user/{username}")
     public ResponseEntity<?> getReviewByUsername(
             @PathVariable("username") String username,
-            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<Review> reviews = reviewService.getAll(username, pageable);
+            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestHeader(name = ReviewWriteBehindService.WRITE_TOKEN_HEADER, required = false) String writeToken) {
+        reviewWriteBehindService.awaitApplied(writeToken);
+        Page<ReviewResponseDTO> reviews = reviewService.getAll(username, pageable);
+        return ResponseEntity.ok(reviews);
+    }
+
+    @GetMapping(path = "/book/{bookId}/timeline")
+    public ResponseEntity<?> getBookTimeline(
+            @PathVariable("bookId") Long bookId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        CursorPageDTO<ReviewResponseDTO> reviews = reviewService.getBookTimeline(bookId, cursor, size);
+        return ResponseEntity.ok(reviews);
+    }
+
+    @GetMapping(path = "/user/{username}/timeline")
+    public ResponseEntity<?> getUserTimeline(
+            @PathVariable("username") String username,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        CursorPageDTO<ReviewResponseDTO> reviews = reviewService.getUserTimeline(username, cursor, size);
         return ResponseEntity.ok(reviews);
     }
 
     @GetMapping("/book/{bookId}/stats")
     public ResponseEntity<?> getBookStatistics(@PathVariable("bookId") Long bookId) {
-        StatisticsDTO stats = reviewService.getBooksStatistics(bookId);
+        StatisticsDTO stats = hotReadService.getBookStatistics(bookId);
         return ResponseEntity.ok(stats);
     }
 
@@ -63,19 +118,49 @@ public class ReviewController {
             @PathVariable("bookId") Long bookId,
             @RequestBody ReviewRequestDTO requestDTO) {
 
-        Review review = reviewService.create(requestDTO, username, bookId);
+        if (reviewWriteBehindService.isEnabled()) {
+            ReviewWriteAcceptedDTO accepted = reviewWriteBehindService.create(requestDTO, username, bookId);
+            return new ResponseEntity<>(accepted, HttpStatus.ACCEPTED);
+        }
+        ReviewResponseDTO review = reviewService.create(requestDTO, username, bookId);
         return new ResponseEntity<>(review, HttpStatus.CREATED);
     }
 
+    @Operation(security = @SecurityRequirement(name = "bearerAuth"))
+    @PostMapping(
+            path = "/import",
+            consumes = { RecordReaders.TEXT_CSV_VALUE, RecordReaders.APPLICATION_NDJSON_VALUE }
+    )
+    public ResponseEntity<?> importReviews(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException, HttpMediaTypeNotSupportedException {
+
+        try (RecordReader reader = recordReaders.open(contentType, body)) {
+            ImportSummaryDTO summary = reviewImportService.importReviews(reader);
+            return ResponseEntity.ok(summary);
+        }
+    }
+
     @Operation(security = @SecurityRequirement(name = "bearerAuth"))
     @PutMapping(path = "/{username}/{bookId}")
     public ResponseEntity<?> updateShelf(
             @PathVariable("username") String username,
             @PathVariable("bookId") Long bookId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody ReviewRequestDTO requestDTO) {
 
-        Review review = reviewService.update(requestDTO, username, bookId);
-        return ResponseEntity.ok(review);
+        Long requiredVersion = EntityTags.requiredVersion(ifMatch);
+        // A conditional update needs its outcome right away, so it is never queued
+        if (requiredVersion == null && reviewWriteBehindService.isEnabled()) {
+            ReviewWriteAcceptedDTO accepted = reviewWriteBehindService.update(requestDTO, username, bookId);
+            return new ResponseEntity<>(accepted, HttpStatus.ACCEPTED);
+        }
+        ReviewResponseDTO review = requiredVersion == null
+                ? reviewService.update(requestDTO, username, bookId)
+                : reviewService.update(requestDTO, username, bookId, requiredVersion);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(review.getVersion()))
+                .body(review);
     }
 
     @Operation(security = @SecurityRequirement(name = "bearerAuth"))
@@ -1,10 +1,15 @@
 package com.fenrir.masterdetail.controller.advice;
 
 import com.fenrir.masterdetail.exception.*;
+import com.fenrir.masterdetail.io.MalformedRecordException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -27,6 +32,20 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity<>(message, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler({
+            InvalidCursorException.class,
+            MalformedRecordException.class,
+            UnsupportedExportFormatException.class
+    })
+    public ResponseEntity<ErrorMessage> handleBadRequestException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler({ ConstraintViolationException.class })
     public ResponseEntity<ErrorMessage> handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
         List<ConstraintViolationInfo> constraintViolations = ex.getConstraintViolations().stream()
@@ -41,6 +60,16 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity<>(message, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler({ DuplicateReviewException.class, DuplicateGenreException.class, WriteFailedException.class })
+    public ResponseEntity<ErrorMessage> handleDuplicateResourceException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.CONFLICT.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler({ DataIntegrityViolationException.class })
     public ResponseEntity<ErrorMessage> handleDataIntegrityViolationException(DataIntegrityViolationException ex, WebRequest request) {
         ErrorMessage message = new ErrorMessage(
@@ -51,6 +80,42 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity<>(message, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler({
+            DeadlineExceededException.class,
+            TransactionTimedOutException.class,
+            QueryTimeoutException.class
+    })
+    public ResponseEntity<ErrorMessage> handleDeadlineExceededException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                LocalDateTime.now(),
+                ex instanceof DeadlineExceededException ? ex.getMessage() : "Request deadline exceeded"
+        );
+        return new ResponseEntity<>(message, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler({ PreconditionFailedException.class, OptimisticLockingFailureException.class })
+    public ResponseEntity<ErrorMessage> handlePreconditionFailedException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                LocalDateTime.now(),
+                ex instanceof PreconditionFailedException ? ex.getMessage() : "Resource was modified concurrently"
+        );
+        return new ResponseEntity<>(message, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler({ WriteQueueFullException.class, WriteNotAppliedException.class })
+    public ResponseEntity<ErrorMessage> handleWriteBehindException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(message);
+    }
+
     @ExceptionHandler({ Exception.class })
     public ResponseEntity<ErrorMessage> handleUnexpectedException(Exception e, WebRequest request) {
         logger.error(e.getMessage());
@@ -0,0 +1,5 @@
+package com.fenrir.masterdetail.counter;
+
+public enum BookCounter {
+    VIEWS
+}
@@ -0,0 +1,58 @@
+package com.fenrir.masterdetail.counter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory deltas for counters that are incremented far more often than they are read. Each key gets a
+ * {@link LongAdder}, which spreads concurrent increments over per-thread cells instead of contending on one
+ * value, so a burst on a hot key costs no locking. {@link #drain()} takes the deltas accumulated since the
+ * previous drain for writing them out, a failed write can hand them back with {@link #addAll(Map)}.
+ */
+public class StripedCounters<K> {
+    private final Map<K, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public void increment(K key) {
+        adder(key).increment();
+    }
+
+    public void add(K key, long delta) {
+        adder(key).add(delta);
+    }
+
+    public void addAll(Map<K, Long> deltas) {
+        deltas.forEach(this::add);
+    }
+
+    public long get(K key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public Map<K, Long> drain() {
+        Map<K, Long> deltas = new HashMap<>();
+        // Adders stay in the map, an increment racing with the drain lands in the next one instead of being lost
+        counters.forEach((key, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(key, delta);
+            }
+        });
+        return deltas;
+    }
+
+    public void remove(K key) {
+        counters.remove(key);
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private LongAdder adder(K key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
@@ -0,0 +1,18 @@
+package com.fenrir.masterdetail.dto;
+
+import com.fenrir.masterdetail.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class BookDetailDTO {
+    private Book book;
+    private StatisticsDTO stats;
+    private Page<ReviewResponseDTO> reviews;
+    private ReviewResponseDTO ownReview;
+    private List<String> unavailable;
+}
@@ -0,0 +1,11 @@
+package com.fenrir.masterdetail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BookReviewCountDTO {
+    private Long bookId;
+    private long reviewCount;
+}
@@ -0,0 +1,25 @@
+package com.fenrir.masterdetail.dto;
+
+import com.fenrir.masterdetail.exception.UnsupportedExportFormatException;
+import com.fenrir.masterdetail.io.RecordReaders;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+@AllArgsConstructor
+@Getter
+public enum ExportFormat {
+    NDJSON(MediaType.parseMediaType(RecordReaders.APPLICATION_NDJSON_VALUE)),
+    CSV(MediaType.parseMediaType(RecordReaders.TEXT_CSV_VALUE + ";charset=UTF-8"));
+
+    private final MediaType mediaType;
+
+    public static ExportFormat from(String value) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new UnsupportedExportFormatException(String.format("Unsupported export format=%s", value)));
+    }
+}
@@ -0,0 +1,17 @@
+package com.fenrir.masterdetail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class ImportSummaryDTO {
+    private long accepted;
+    private long rejected;
+    private long batches;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private List<ImportRejectionDTO> rejections;
+}
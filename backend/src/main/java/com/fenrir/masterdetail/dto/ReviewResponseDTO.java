@@ -0,0 +1,58 @@
+package com.fenrir.masterdetail.dto;
+
+import com.fenrir.masterdetail.model.Review;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@EqualsAndHashCode
+public class ReviewResponseDTO {
+    private final Review.Id id;
+    private final String content;
+    private final Integer rate;
+    private final Long version;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Reviewer user;
+    private final ReviewedBook book;
+
+    public ReviewResponseDTO(
+            Long userId,
+            Long bookId,
+            String content,
+            Integer rate,
+            Long version,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            String username,
+            String bookTitle,
+            String bookCover) {
+        this.id = new Review.Id(userId, bookId);
+        this.content = content;
+        this.rate = rate;
+        this.version = version;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.user = new Reviewer(username);
+        this.book = new ReviewedBook(bookId, bookTitle, bookCover);
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    public static class Reviewer {
+        private final String username;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    public static class ReviewedBook {
+        private final Long id;
+        private final String title;
+        private final String cover;
+    }
+}
@@ -0,0 +1,12 @@
+package com.fenrir.masterdetail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ReviewWriteAcceptedDTO {
+    private String token;
+    private String username;
+    private Long bookId;
+}
@@ -1,26 +1,53 @@
 package com.fenrir.masterdetail.dto.mapper;
 
+import com.fenrir.masterdetail.dto.CursorPageDTO;
+import com.fenrir.masterdetail.dto.ReviewCursor;
 import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
 import com.fenrir.masterdetail.dto.StatisticsDTO;
 import com.fenrir.masterdetail.model.Book;
 import com.fenrir.masterdetail.model.Review;
-import com.fenrir.masterdetail.model.User;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.function.Function;
 
 @Component
 public class ReviewMapper {
-    public Review fromReviewRequestDTO(ReviewRequestDTO dto, User user, Book book) {
+    public Review fromReviewRequestDTO(ReviewRequestDTO dto, Long userId, Long bookId) {
         return new Review(
-                new Review.Id(user.getId(), book.getId()),
+                new Review.Id(userId, bookId),
                 dto.getContent(),
                 dto.getRate()
         );
     }
 
+    public ReviewResponseDTO toReviewResponseDTO(Review review, String username, ReviewResponseDTO.ReviewedBook book) {
+        return new ReviewResponseDTO(
+                review.getId().getUserId(),
+                review.getId().getBookId(),
+                review.getContent(),
+                review.getRate(),
+                review.getVersion(),
+                review.getCreatedAt(),
+                review.getUpdatedAt(),
+                username,
+                book.getTitle(),
+                book.getCover()
+        );
+    }
+
+    public ReviewResponseDTO.ReviewedBook toReviewedBook(Book book) {
+        return new ReviewResponseDTO.ReviewedBook(
+                book.getId(),
+                book.getTitle(),
+                book.getCover()
+        );
+    }
+
     public StatisticsDTO toStatisticsDTO(Long bookId, List<Review> shelves) {
         long numberOfRates = shelves.size();
         long numberOfComments = shelves.stream()
@@ -41,4 +68,21 @@ public class ReviewMapper {
         );
     }
 
+    public CursorPageDTO<ReviewResponseDTO> toCursorPageDTO(
+            Slice<ReviewResponseDTO> slice,
+            Function<ReviewResponseDTO, Long> cursorId) {
+
+        List<ReviewResponseDTO> reviews = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            ReviewResponseDTO last = reviews.get(reviews.size() - 1);
+            nextCursor = new ReviewCursor(last.getCreatedAt(), cursorId.apply(last)).encode();
+        }
+        return new CursorPageDTO<>(
+                reviews,
+                slice.getSize(),
+                slice.hasNext(),
+                nextCursor
+        );
+    }
 }
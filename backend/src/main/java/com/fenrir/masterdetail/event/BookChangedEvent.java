@@ -0,0 +1,17 @@
+package com.fenrir.masterdetail.event;
+
+import com.fenrir.masterdetail.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BookChangedEvent {
+    private final Type type;
+    private final Book book;
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+}
@@ -0,0 +1,10 @@
+package com.fenrir.masterdetail.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BooksImportedEvent {
+    private final long count;
+}
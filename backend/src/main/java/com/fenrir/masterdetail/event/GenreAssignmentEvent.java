@@ -0,0 +1,12 @@
+package com.fenrir.masterdetail.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class GenreAssignmentEvent {
+    private final Long genreId;
+    private final Long bookId;
+    private final boolean assigned;
+}
@@ -0,0 +1,17 @@
+package com.fenrir.masterdetail.event;
+
+import com.fenrir.masterdetail.model.Genre;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class GenreChangedEvent {
+    private final Type type;
+    private final Genre genre;
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+}
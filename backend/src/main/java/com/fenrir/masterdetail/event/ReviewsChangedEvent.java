@@ -0,0 +1,12 @@
+package com.fenrir.masterdetail.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+@AllArgsConstructor
+@Getter
+public class ReviewsChangedEvent {
+    private final Set<Long> bookIds;
+}
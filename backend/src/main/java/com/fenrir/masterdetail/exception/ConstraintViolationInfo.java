@@ -16,7 +16,7 @@ public class ConstraintViolationInfo {
     public static ConstraintViolationInfo from(ConstraintViolation cv) {
         return new ConstraintViolationInfo(
                 cv.getPropertyPath().toString(),
-                cv.getInvalidValue().toString(),
+                String.valueOf(cv.getInvalidValue()),
                 cv.getMessage()
         );
     }
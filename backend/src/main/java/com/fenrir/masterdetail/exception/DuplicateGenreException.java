@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.exception;
+
+public class DuplicateGenreException extends RuntimeException {
+    public DuplicateGenreException(String message) {
+        super(message);
+    }
+}
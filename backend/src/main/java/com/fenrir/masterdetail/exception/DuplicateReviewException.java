@@ -0,0 +1,11 @@
+package com.fenrir.masterdetail.exception;
+
+public class DuplicateReviewException extends RuntimeException {
+    public DuplicateReviewException(String message) {
+        super(message);
+    }
+
+    public DuplicateReviewException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.exception;
+
+public class UnsupportedExportFormatException extends RuntimeException {
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.exception;
+
+public class WriteFailedException extends RuntimeException {
+    public WriteFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.exception;
+
+public class WriteNotAppliedException extends RuntimeException {
+    public WriteNotAppliedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,141 @@
+package com.fenrir.masterdetail.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 reader. The first record is the header; quoted fields may contain separators,
+ * doubled quotes and line breaks. Only the current record is held in memory.
+ */
+public class CsvRecordReader implements RecordReader {
+    private static final int EOF = -1;
+
+    private final BufferedReader reader;
+    private final List<String> header;
+    private long currentLine = 1;
+    private long recordLine;
+    private int pushedBack = EOF - 1;
+
+    public CsvRecordReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> fields = readFields();
+        if (fields == null) {
+            throw new MalformedRecordException("CSV input has no header");
+        }
+        this.header = fields.stream()
+                .map(String::trim)
+                .toList();
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+        if (fields.size() != header.size()) {
+            throw new MalformedRecordException(String.format(
+                    "Expected %d fields but found %d", header.size(), fields.size()
+            ));
+        }
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), fields.get(i));
+        }
+        return record;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readFields() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+        recordLine = currentLine;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean unterminated = false;
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    unterminated = true;
+                    break;
+                } else if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == EOF || c == '\n') {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    unread(next);
+                }
+                break;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+
+        if (unterminated) {
+            throw new MalformedRecordException("Unterminated quoted field");
+        }
+        return fields;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack >= EOF) {
+            c = pushedBack;
+            pushedBack = EOF - 1;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            currentLine++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            currentLine--;
+        }
+        pushedBack = c;
+    }
+}
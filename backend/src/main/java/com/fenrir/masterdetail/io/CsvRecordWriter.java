@@ -0,0 +1,36 @@
+package com.fenrir.masterdetail.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+public class CsvRecordWriter {
+    private final Writer writer;
+
+    public CsvRecordWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void write(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        if (field.isEmpty() || field.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
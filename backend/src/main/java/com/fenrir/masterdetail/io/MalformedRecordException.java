@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.io;
+
+public class MalformedRecordException extends RuntimeException {
+    public MalformedRecordException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.fenrir.masterdetail.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+public interface RecordReader extends Closeable {
+    /**
+     * Returns the next record keyed by field name, or {@code null} once the input is exhausted.
+     *
+     * @throws MalformedRecordException if the current record cannot be parsed; the reader stays usable
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Line on which the record most recently returned by {@link #next()} starts.
+     */
+    long getLineNumber();
+}
@@ -0,0 +1,40 @@
+package com.fenrir.masterdetail.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@AllArgsConstructor
+@Component
+public class RecordReaders {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private ObjectMapper objectMapper;
+
+    public RecordReader open(MediaType contentType, InputStream body)
+            throws IOException, HttpMediaTypeNotSupportedException {
+
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        InputStreamReader reader = new InputStreamReader(body, charset);
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new CsvRecordReader(reader);
+        }
+        if (APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new NdjsonRecordReader(reader, objectMapper);
+        }
+        throw new HttpMediaTypeNotSupportedException(contentType, List.of(TEXT_CSV, APPLICATION_NDJSON));
+    }
+}
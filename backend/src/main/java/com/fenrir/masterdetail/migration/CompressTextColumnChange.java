@@ -0,0 +1,128 @@
+package com.fenrir.masterdetail.migration;
+
+import com.fenrir.masterdetail.model.converter.CompressedText;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Copies a text column into its binary replacement in the {@link CompressedText} format. Liquibase changes
+ * cannot call the JPA converter, so existing rows are encoded here with the same codec. Rows are read a page
+ * at a time in key order, so only one page is ever held in memory.
+ */
+@Setter
+public class CompressTextColumnChange implements CustomTaskChange {
+    private String tableName;
+    private String keyColumns;
+    private String sourceColumn;
+    private String targetColumn;
+    private int batchSize = 500;
+    private long updatedRows;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        List<String> keys = Arrays.stream(keyColumns.split(","))
+                .map(String::trim)
+                .toList();
+        String columns = String.join(", ", keys);
+        String selectFirst = String.format("SELECT %s, %s FROM %s WHERE %s IS NOT NULL ORDER BY %s LIMIT %d",
+                columns, sourceColumn, tableName, sourceColumn, columns, batchSize);
+        String selectNext = String.format("SELECT %s, %s FROM %s WHERE %s IS NOT NULL AND (%s) ORDER BY %s LIMIT %d",
+                columns, sourceColumn, tableName, sourceColumn, after(keys), columns, batchSize);
+        String update = String.format("UPDATE %s SET %s = ? WHERE %s",
+                tableName, targetColumn, keys.stream().map(key -> key + " = ?").collect(Collectors.joining(" AND ")));
+
+        try (PreparedStatement first = connection.prepareStatement(selectFirst);
+             PreparedStatement next = connection.prepareStatement(selectNext);
+             PreparedStatement ps = connection.prepareStatement(update)) {
+            Object[] lastKey = null;
+            int read;
+            do {
+                PreparedStatement query = lastKey == null ? first : next;
+                if (lastKey != null) {
+                    bindAfter(query, lastKey);
+                }
+                read = 0;
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        ps.setBytes(1, CompressedText.encode(rows.getString(keys.size() + 1)));
+                        lastKey = new Object[keys.size()];
+                        for (int i = 0; i < keys.size(); i++) {
+                            lastKey[i] = rows.getObject(i + 1);
+                            ps.setObject(i + 2, lastKey[i]);
+                        }
+                        ps.addBatch();
+                        read++;
+                    }
+                }
+                if (read > 0) {
+                    ps.executeBatch();
+                }
+                updatedRows += read;
+            } while (read == batchSize);
+        } catch (SQLException e) {
+            throw new CustomChangeException(
+                    String.format("Could not compress %s.%s: %s", tableName, sourceColumn, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return String.format("Compressed %d rows of %s.%s into %s", updatedRows, tableName, sourceColumn, targetColumn);
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("tableName", tableName);
+        errors.checkRequiredField("keyColumns", keyColumns);
+        errors.checkRequiredField("sourceColumn", sourceColumn);
+        errors.checkRequiredField("targetColumn", targetColumn);
+        return errors;
+    }
+
+    /**
+     * Matches the rows that come after a key in key order, spelled out column by column rather than as a row
+     * value comparison, which not every database supports.
+     */
+    private static String after(List<String> keys) {
+        return IntStream.range(0, keys.size())
+                .mapToObj(i -> keys.subList(0, i).stream()
+                        .map(key -> key + " = ? AND ")
+                        .collect(Collectors.joining()) + keys.get(i) + " > ?")
+                .map(condition -> "(" + condition + ")")
+                .collect(Collectors.joining(" OR "));
+    }
+
+    private static void bindAfter(PreparedStatement query, Object[] lastKey) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < lastKey.length; i++) {
+            for (int j = 0; j <= i; j++) {
+                query.setObject(index++, lastKey[j]);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.fenrir.masterdetail.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+/**
+ * Rendered in JSON as the bare author name, so books keep their {@code "author": "name"} shape.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@Entity
+@Immutable
+@BatchSize(size = 100)
+public class Author {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Size(max = 255)
+    @JsonValue
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public Author(String name) {
+        this.name = name;
+    }
+}
@@ -1,12 +1,17 @@
 package com.fenrir.masterdetail.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Builder
 @NoArgsConstructor
@@ -21,15 +26,29 @@ public class Book {
     private Long id;
 
     @NotBlank
+    @Size(max = 255)
     private String title;
 
-    @NotBlank
-    private String author;
+    @NotNull
+    @Valid
+    @ManyToOne
+    @JoinColumn(name = "author_id", nullable = false)
+    private Author author;
 
-    @Column(name = "description", length = 5000)
+    /**
+     * Stored in {@link BookDescription} and only filled in when a single book is read.
+     */
+    @Size(max = 5000)
+    @Transient
     private String description;
+
+    @Size(max = 255)
     private String cover;
 
+    @Setter(AccessLevel.NONE)
+    @Version
+    private Long version;
+
     @Setter(AccessLevel.NONE)
     @UpdateTimestamp
     private LocalDateTime updatedAt;
@@ -38,10 +57,37 @@ public class Book {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
-    public Book(String title, String author, String description, String cover) {
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Setter(AccessLevel.NONE)
+    @ManyToMany
+    @JoinTable(
+            name = "book_genre",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "genre_id")
+    )
+    private Set<Genre> genres;
+
+    public Book(Long id, String title, Author author, String description, String cover,
+                LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
         this.title = title;
         this.author = author;
         this.description = description;
         this.cover = cover;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Book(String title, String author, String description, String cover) {
+        this.title = title;
+        this.author = author != null ? new Author(author) : null;
+        this.description = description;
+        this.cover = cover;
+    }
+
+    @JsonIgnore
+    public String getAuthorName() {
+        return author != null ? author.getName() : null;
     }
 }
@@ -0,0 +1,31 @@
+package com.fenrir.masterdetail.model;
+
+import com.fenrir.masterdetail.model.converter.CompressedTextConverter;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Kept apart from {@link Book} so listing pages and joined book rows do not read the long text.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+@Entity
+public class BookDescription {
+    @Id
+    private Long bookId;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, length = 20001)
+    private String description;
+}
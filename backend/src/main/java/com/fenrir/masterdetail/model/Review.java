@@ -1,10 +1,12 @@
 package com.fenrir.masterdetail.model;
 
+import com.fenrir.masterdetail.model.converter.CompressedTextConverter;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import javax.persistence.*;
 import javax.validation.constraints.Max;
@@ -21,13 +23,15 @@ import java.time.LocalDateTime;
 @Setter
 @EqualsAndHashCode
 @Entity
-public class Review {
+public class Review implements Persistable<Review.Id> {
 
     @Setter(AccessLevel.NONE)
     @EmbeddedId
     private Id id = new Id();
 
     @Size(max = 1000)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = 4001)
     private String content;
 
     @NotNull
@@ -36,6 +40,10 @@ public class Review {
     @Column(name = "rate", nullable = false)
     private Integer rate;
 
+    @Setter(AccessLevel.NONE)
+    @Version
+    private Long version;
+
     @Setter(AccessLevel.NONE)
     @UpdateTimestamp
     private LocalDateTime updatedAt;
@@ -44,22 +52,39 @@ public class Review {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(insertable = false, updatable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Book book;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(insertable = false, updatable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
     public Review(Id id, String content, Integer rate) {
         this.id = id;
         this.content = content;
         this.rate = rate;
     }
 
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
     @NoArgsConstructor
     @AllArgsConstructor
     @Getter
@@ -0,0 +1,76 @@
+package com.fenrir.masterdetail.model.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stored form of long text columns. Values shorter than {@link #THRESHOLD_BYTES} are kept as plain UTF-8,
+ * longer ones are deflated behind a zero marker byte, which valid stored text never starts with. Compression
+ * is skipped when it would not make the value smaller.
+ */
+public final class CompressedText {
+    public static final int THRESHOLD_BYTES = 256;
+    private static final byte COMPRESSED_MARKER = 0;
+    private static final int BUFFER_SIZE = 1024;
+
+    private CompressedText() {
+    }
+
+    public static byte[] encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        boolean startsWithMarker = raw.length > 0 && raw[0] == COMPRESSED_MARKER;
+        if (raw.length < THRESHOLD_BYTES && !startsWithMarker) {
+            return raw;
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length / 2 + 1);
+            output.write(COMPRESSED_MARKER);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.size() < raw.length || startsWithMarker ? output.toByteArray() : raw;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decode(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (stored.length == 0 || stored[0] != COMPRESSED_MARKER) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(Arrays.copyOfRange(stored, 1, stored.length));
+            ByteArrayOutputStream output = new ByteArrayOutputStream(stored.length * 3);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalArgumentException("Compressed text is truncated");
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Compressed text is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
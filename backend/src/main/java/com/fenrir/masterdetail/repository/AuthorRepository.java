@@ -0,0 +1,11 @@
+package com.fenrir.masterdetail.repository;
+
+import com.fenrir.masterdetail.model.Author;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AuthorRepository extends JpaRepository<Author, Long> {
+    List<Author> findAllByNameIn(Collection<String> names);
+}
@@ -0,0 +1,7 @@
+package com.fenrir.masterdetail.repository;
+
+import com.fenrir.masterdetail.model.BookDescription;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BookDescriptionRepository extends JpaRepository<BookDescription, Long> {
+}
@@ -1,7 +1,80 @@
 package com.fenrir.masterdetail.repository;
 
+import com.fenrir.masterdetail.dto.BookAuthorDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
 import com.fenrir.masterdetail.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
+    String STREAM_FETCH_SIZE = "1000";
+
+    String GENRES_JOIN = "JOIN b.genres g WHERE g.name IN :genres ";
+    String GENRES_MATCH = "GROUP BY b HAVING COUNT(g) >= :minGenres";
+    String COUNT_GENRES_MATCH = "SELECT COUNT(b) FROM Book b WHERE b.id IN (SELECT gb.id FROM Book gb " +
+            "JOIN gb.genres g WHERE g.name IN :genres GROUP BY gb.id HAVING COUNT(g) >= :minGenres)";
+
+    @Query("SELECT b FROM Book b WHERE b.author.name = :author")
+    Page<Book> findAllByAuthorName(@Param("author") String author, Pageable pageable);
+
+    /**
+     * Books having at least {@code minGenres} of the given genres, so 1 matches any of them and their count
+     * matches all of them.
+     */
+    @Query(value = "SELECT b FROM Book b " + GENRES_JOIN + GENRES_MATCH, countQuery = COUNT_GENRES_MATCH)
+    Page<Book> findAllByGenres(
+            @Param("genres") Collection<String> genres, @Param("minGenres") long minGenres, Pageable pageable);
+
+    @Query(value = "SELECT b FROM Book b " + GENRES_JOIN + "AND b.author.name = :author " + GENRES_MATCH,
+            countQuery = COUNT_GENRES_MATCH + " AND b.author.name = :author")
+    Page<Book> findAllByAuthorNameAndGenres(
+            @Param("author") String author, @Param("genres") Collection<String> genres,
+            @Param("minGenres") long minGenres, Pageable pageable);
+
+    @Query("SELECT new com.fenrir.masterdetail.dto.ReviewResponseDTO$ReviewedBook(b.id, b.title, b.cover) " +
+            "FROM Book b WHERE b.id = :id")
+    Optional<ReviewResponseDTO.ReviewedBook> findReviewedBookById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT new com.fenrir.masterdetail.model.Book(b.id, b.title, a, d.description, b.cover, b.createdAt, b.updatedAt) " +
+            "FROM Book b LEFT JOIN b.author a LEFT JOIN BookDescription d ON d.bookId = b.id " +
+            "ORDER BY b.id")
+    Stream<Book> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("SELECT b FROM Book b JOIN FETCH b.author WHERE b.id > :afterId ORDER BY b.id")
+    List<Book> findAllAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT new com.fenrir.masterdetail.dto.BookAuthorDTO(b.id, a.name) FROM Book b JOIN b.author a ORDER BY b.id")
+    Stream<BookAuthorDTO> streamAllAuthors();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT new com.fenrir.masterdetail.model.Book(b.id, b.title, a, d.description, b.cover, b.createdAt, b.updatedAt) " +
+            "FROM Book b LEFT JOIN b.author a LEFT JOIN BookDescription d ON d.bookId = b.id " +
+            "WHERE b.updatedAt >= :updatedSince ORDER BY b.updatedAt, b.id")
+    Stream<Book> streamAllUpdatedSince(@Param("updatedSince") LocalDateTime updatedSince);
 }
@@ -0,0 +1,15 @@
+package com.fenrir.masterdetail.repository;
+
+import com.fenrir.masterdetail.dto.BookGenreDTO;
+import com.fenrir.masterdetail.model.Genre;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface GenreRepository extends JpaRepository<Genre, Long> {
+    boolean existsByName(String name);
+
+    @Query("SELECT new com.fenrir.masterdetail.dto.BookGenreDTO(b.id, g.id) FROM Book b JOIN b.genres g")
+    List<BookGenreDTO> findAllBookGenres();
+}
@@ -1,16 +1,96 @@
 package com.fenrir.masterdetail.repository;
 
+import com.fenrir.masterdetail.dto.BookReviewCountDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
 import com.fenrir.masterdetail.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Review.Id> {
+    String SELECT_REVIEW_RESPONSE = "SELECT new com.fenrir.masterdetail.dto.ReviewResponseDTO(" +
+            "r.id.userId, r.id.bookId, r.content, r.rate, r.version, r.createdAt, r.updatedAt, u.username, b.title, b.cover) " +
+            "FROM Review r JOIN r.user u JOIN r.book b ";
+
     Optional<Review> findByUser_UsernameAndBookId(String username, Long bookId);
-    Page<Review> findAllByUser_Username(String username, Pageable pageable);
-    Page<Review> findAllByBook_Id(Long bookId, Pageable pageable);
     List<Review> findAllByBook_Id(Long bookId);
+
+    @Query("SELECT new com.fenrir.masterdetail.dto.BookReviewCountDTO(r.id.bookId, count(r)) " +
+            "FROM Review r GROUP BY r.id.bookId")
+    List<BookReviewCountDTO> countReviewsByBook();
+
+    @Query("SELECT new com.fenrir.masterdetail.dto.BookReviewCountDTO(r.id.bookId, count(r)) " +
+            "FROM Review r WHERE r.id.bookId IN :bookIds GROUP BY r.id.bookId")
+    List<BookReviewCountDTO> countReviewsByBook(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query(SELECT_REVIEW_RESPONSE +
+            "WHERE u.username = :username AND r.id.bookId = :bookId")
+    Optional<ReviewResponseDTO> findResponseByUsernameAndBookId(
+            @Param("username") String username,
+            @Param("bookId") Long bookId);
+
+    @Query(value = SELECT_REVIEW_RESPONSE +
+            "WHERE u.username = :username",
+            countQuery = "SELECT count(r) FROM Review r JOIN r.user u WHERE u.username = :username")
+    Page<ReviewResponseDTO> findResponsesByUsername(@Param("username") String username, Pageable pageable);
+
+    @Query(value = SELECT_REVIEW_RESPONSE +
+            "WHERE r.id.bookId = :bookId",
+            countQuery = "SELECT count(r) FROM Review r WHERE r.id.bookId = :bookId")
+    Page<ReviewResponseDTO> findResponsesByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query(SELECT_REVIEW_RESPONSE +
+            "WHERE r.id.bookId = :bookId " +
+            "ORDER BY r.createdAt DESC, r.id.userId DESC")
+    Slice<ReviewResponseDTO> findBookTimeline(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query(SELECT_REVIEW_RESPONSE +
+            "WHERE r.id.bookId = :bookId " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id.userId < :userId)) " +
+            "ORDER BY r.createdAt DESC, r.id.userId DESC")
+    Slice<ReviewResponseDTO> findBookTimelineBefore(
+            @Param("bookId") Long bookId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("userId") Long userId,
+            Pageable pageable);
+
+    @Query(SELECT_REVIEW_RESPONSE +
+            "WHERE r.id.userId = :userId " +
+            "ORDER BY r.createdAt DESC, r.id.bookId DESC")
+    Slice<ReviewResponseDTO> findUserTimeline(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SELECT_REVIEW_RESPONSE +
+            "WHERE r.id.userId = :userId " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id.bookId < :bookId)) " +
+            "ORDER BY r.createdAt DESC, r.id.bookId DESC")
+    Slice<ReviewResponseDTO> findUserTimelineBefore(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("bookId") Long bookId,
+            Pageable pageable);
+
+    /**
+     * Updates the review only while it still has the given version, returns 0 when it is missing or changed.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Review r SET r.content = :content, r.rate = :rate, r.updatedAt = :updatedAt, " +
+            "r.version = r.version + 1 " +
+            "WHERE r.id.bookId = :bookId AND r.version = :version " +
+            "AND r.id.userId = (SELECT u.id FROM User u WHERE u.username = :username)")
+    int updateIfVersionMatches(
+            @Param("username") String username,
+            @Param("bookId") Long bookId,
+            @Param("version") Long version,
+            @Param("content") String content,
+            @Param("rate") Integer rate,
+            @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,162 @@
+package com.fenrir.masterdetail.search;
+
+import com.fenrir.masterdetail.dto.AuthorBookCountDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Book count per author kept up to date from individual book writes. The author of every book is remembered,
+ * so replaying a write is harmless and an update moves the book between authors without a recount.
+ */
+public class AuthorIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> bookAuthors = new HashMap<>();
+    private final Map<String, Counter> counts = new HashMap<>();
+    private AuthorBookCountDTO[] byName;
+    private AuthorBookCountDTO[] byCount;
+
+    public enum Order {
+        NAME,
+        BOOK_COUNT
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Result {
+        private final List<AuthorBookCountDTO> authors;
+        private final long total;
+    }
+
+    public void put(long bookId, String author) {
+        lock.writeLock().lock();
+        try {
+            String previous = bookAuthors.get(bookId);
+            if (previous != null && previous.equals(author)) {
+                return;
+            }
+            if (previous != null) {
+                decrement(previous);
+            }
+            if (author == null) {
+                bookAuthors.remove(bookId);
+                return;
+            }
+            Counter counter = counts.computeIfAbsent(author, Counter::new);
+            counter.count++;
+            // Share one string instance per author instead of keeping one per book
+            bookAuthors.put(bookId, counter.author);
+            invalidate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            String previous = bookAuthors.remove(bookId);
+            if (previous != null) {
+                decrement(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count(String author) {
+        lock.readLock().lock();
+        try {
+            Counter counter = counts.get(author);
+            return counter != null ? counter.count : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return counts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result page(Order order, boolean descending, long offset, int size) {
+        AuthorBookCountDTO[] sorted = sorted(order);
+        if (offset >= sorted.length || size <= 0) {
+            return new Result(List.of(), sorted.length);
+        }
+        int end = (int) Math.min(sorted.length, offset + size);
+        List<AuthorBookCountDTO> page = new ArrayList<>(end - (int) offset);
+        for (int rank = (int) offset; rank < end; rank++) {
+            page.add(sorted[descending ? sorted.length - 1 - rank : rank]);
+        }
+        return new Result(page, sorted.length);
+    }
+
+    private AuthorBookCountDTO[] sorted(Order order) {
+        lock.readLock().lock();
+        try {
+            AuthorBookCountDTO[] cached = order == Order.NAME ? byName : byCount;
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (byName == null) {
+                byName = counts.values().stream()
+                        .map(counter -> new AuthorBookCountDTO(counter.author, counter.count))
+                        .sorted(Comparator.comparing(AuthorBookCountDTO::getAuthor))
+                        .toArray(AuthorBookCountDTO[]::new);
+            }
+            if (order == Order.NAME) {
+                return byName;
+            }
+            if (byCount == null) {
+                byCount = Arrays.stream(byName)
+                        .sorted(Comparator.comparingLong(AuthorBookCountDTO::getBookCount)
+                                .thenComparing(AuthorBookCountDTO::getAuthor))
+                        .toArray(AuthorBookCountDTO[]::new);
+            }
+            return byCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void decrement(String author) {
+        Counter counter = counts.get(author);
+        if (--counter.count == 0) {
+            counts.remove(author);
+        }
+        invalidate();
+    }
+
+    private void invalidate() {
+        byName = null;
+        byCount = null;
+    }
+
+    private static class Counter {
+        private final String author;
+        private long count;
+
+        Counter(String author) {
+            this.author = author;
+        }
+    }
+}
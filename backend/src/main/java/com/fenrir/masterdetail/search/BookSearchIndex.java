@@ -0,0 +1,199 @@
+package com.fenrir.masterdetail.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over book title, author and description ranked with BM25. Documents are addressed by
+ * dense int ordinals; removed ordinals are reclaimed by compacting once they outnumber live documents.
+ */
+public class BookSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::getScore)
+            .thenComparing(SearchHit::getBookId, Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] bookIds = new long[64];
+    private int[] lengths = new int[64];
+    private int[][] documentTerms = new int[64][];
+    private int nextOrdinal;
+    private long totalLength;
+
+    public void index(long bookId, String title, String author, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTokens(frequencies, title, TITLE_WEIGHT);
+        addTokens(frequencies, author, AUTHOR_WEIGHT);
+        addTokens(frequencies, description, DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            int ordinal = allocateOrdinal(bookId);
+            int[] terms = new int[frequencies.size()];
+            int length = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+                    postings.add(new Postings());
+                    return postings.size() - 1;
+                });
+                postings.get(termId).add(ordinal, entry.getValue());
+                terms[i++] = termId;
+                length += entry.getValue();
+            }
+            documentTerms[ordinal] = terms;
+            lengths[ordinal] = length;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return rank(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> rank(String query, int limit) {
+        List<Postings> matched = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(Analyzer.tokenize(query))) {
+            Integer termId = termIds.get(term);
+            if (termId != null && postings.get(termId).size() > 0) {
+                matched.add(postings.get(termId));
+            }
+        }
+        if (matched.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int documentCount = ordinals.size();
+        float averageLength = (float) totalLength / documentCount;
+        float[] scores = new float[nextOrdinal];
+        for (Postings termPostings : matched) {
+            int documentFrequency = termPostings.size();
+            double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < documentFrequency; i++) {
+                int ordinal = termPostings.ordinal(i);
+                int frequency = termPostings.frequency(i);
+                float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                scores[ordinal] += (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+            }
+        }
+        return topK(scores, limit);
+    }
+
+    private List<SearchHit> topK(float[] scores, int limit) {
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(limit + 1, RANKING);
+        for (int ordinal = 0; ordinal < scores.length; ordinal++) {
+            if (scores[ordinal] <= 0) {
+                continue;
+            }
+            SearchHit hit = new SearchHit(bookIds[ordinal], scores[ordinal]);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (RANKING.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(heap);
+        hits.sort(RANKING.reversed());
+        return hits;
+    }
+
+    private void addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : Analyzer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private int allocateOrdinal(long bookId) {
+        if (nextOrdinal == bookIds.length) {
+            int capacity = bookIds.length * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            documentTerms = Arrays.copyOf(documentTerms, capacity);
+        }
+        int ordinal = nextOrdinal++;
+        bookIds[ordinal] = bookId;
+        ordinals.put(bookId, ordinal);
+        return ordinal;
+    }
+
+    private void removeDocument(long bookId) {
+        Integer ordinal = ordinals.remove(bookId);
+        if (ordinal == null) {
+            return;
+        }
+        for (int termId : documentTerms[ordinal]) {
+            postings.get(termId).remove(ordinal);
+        }
+        totalLength -= lengths[ordinal];
+        documentTerms[ordinal] = null;
+        lengths[ordinal] = 0;
+
+        int removed = nextOrdinal - ordinals.size();
+        if (nextOrdinal >= MIN_COMPACTION_SIZE && removed > ordinals.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] newOrdinals = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (documentTerms[ordinal] == null) {
+                continue;
+            }
+            newOrdinals[ordinal] = live;
+            bookIds[live] = bookIds[ordinal];
+            lengths[live] = lengths[ordinal];
+            documentTerms[live] = documentTerms[ordinal];
+            ordinals.put(bookIds[live], live);
+            live++;
+        }
+        Arrays.fill(documentTerms, live, nextOrdinal, null);
+        nextOrdinal = live;
+        postings.forEach(termPostings -> termPostings.remap(newOrdinals));
+    }
+}
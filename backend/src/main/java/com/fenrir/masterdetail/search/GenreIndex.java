@@ -0,0 +1,276 @@
+package com.fenrir.masterdetail.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed bitmap of book ordinals per genre. Ordinals follow book id order, so id ordered pages are read
+ * straight from the bitmap; title ordered pages use a title permutation rebuilt lazily after writes. Removed
+ * ordinals are reclaimed by compacting once they outnumber live books, which keeps the id order.
+ */
+public class GenreIndex {
+    private static final int SORT_MATCHES_RATIO = 16;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Long> genreIds = new HashMap<>();
+    private final Map<Long, RoaringBitmap> genres = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final RoaringBitmap books = new RoaringBitmap();
+    private long[] bookIds = new long[64];
+    private String[] titles = new String[64];
+    private int nextOrdinal;
+    private int[] titleOrder;
+
+    public enum Order {
+        ID,
+        TITLE
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Result {
+        private final List<Long> bookIds;
+        private final long total;
+    }
+
+    public void putGenre(long genreId, String name) {
+        lock.writeLock().lock();
+        try {
+            genreIds.put(name.toLowerCase(Locale.ROOT), genreId);
+            genres.putIfAbsent(genreId, new RoaringBitmap());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeGenre(long genreId) {
+        lock.writeLock().lock();
+        try {
+            genreIds.values().remove(genreId);
+            genres.remove(genreId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putBook(long bookId, String title) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal == null) {
+                ordinal = allocateOrdinal(bookId);
+                books.add(ordinal);
+            }
+            titles[ordinal] = Analyzer.normalize(title != null ? title : "");
+            titleOrder = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeBook(long bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(bookId);
+            if (ordinal == null) {
+                return;
+            }
+            books.remove(ordinal);
+            genres.values().forEach(bitmap -> bitmap.remove(ordinal));
+            titles[ordinal] = null;
+            titleOrder = null;
+
+            int removed = nextOrdinal - ordinals.size();
+            if (nextOrdinal >= MIN_COMPACTION_SIZE && removed > ordinals.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void assign(long genreId, long bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(bookId);
+            RoaringBitmap bitmap = genres.get(genreId);
+            if (ordinal != null && bitmap != null) {
+                bitmap.add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void unassign(long genreId, long bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(bookId);
+            RoaringBitmap bitmap = genres.get(genreId);
+            if (ordinal != null && bitmap != null) {
+                bitmap.remove(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            genres.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result filter(Collection<String> genreNames, boolean matchAll, Order order, boolean descending,
+                         long offset, int size) {
+        lock.readLock().lock();
+        try {
+            if (order != Order.TITLE || titleOrder != null) {
+                return page(match(genreNames, matchAll), order, descending, offset, size);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (titleOrder == null) {
+                titleOrder = sortByTitle(books.toArray());
+            }
+            return page(match(genreNames, matchAll), order, descending, offset, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private RoaringBitmap match(Collection<String> genreNames, boolean matchAll) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(genreNames.size());
+        for (String name : genreNames) {
+            Long genreId = genreIds.get(name.toLowerCase(Locale.ROOT));
+            if (genreId != null) {
+                bitmaps.add(genres.get(genreId));
+            } else if (matchAll) {
+                return new RoaringBitmap();
+            }
+        }
+        if (bitmaps.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap[] operands = bitmaps.toArray(RoaringBitmap[]::new);
+        return matchAll ? FastAggregation.and(operands) : FastAggregation.or(operands);
+    }
+
+    private Result page(RoaringBitmap matched, Order order, boolean descending, long offset, int size) {
+        long total = matched.getLongCardinality();
+        if (offset >= total || size <= 0) {
+            return new Result(List.of(), total);
+        }
+        int[] page = order == Order.TITLE
+                ? pageByTitle(matched, total, descending, (int) offset, size)
+                : pageById(matched, total, descending, (int) offset, size);
+        List<Long> ids = new ArrayList<>(page.length);
+        for (int ordinal : page) {
+            ids.add(bookIds[ordinal]);
+        }
+        return new Result(ids, total);
+    }
+
+    private int[] pageById(RoaringBitmap matched, long total, boolean descending, int offset, int size) {
+        int end = (int) Math.min(total, (long) offset + size);
+        return IntStream.range(offset, end)
+                .map(rank -> matched.select(descending ? (int) total - 1 - rank : rank))
+                .toArray();
+    }
+
+    private int[] pageByTitle(RoaringBitmap matched, long total, boolean descending, int offset, int size) {
+        int end = (int) Math.min(total, (long) offset + size);
+        if (total * SORT_MATCHES_RATIO < titleOrder.length) {
+            int[] sorted = sortByTitle(matched.toArray());
+            return IntStream.range(offset, end)
+                    .map(rank -> sorted[descending ? sorted.length - 1 - rank : rank])
+                    .toArray();
+        }
+
+        int[] page = new int[end - offset];
+        int rank = 0;
+        int collected = 0;
+        for (int i = 0; i < titleOrder.length && collected < page.length; i++) {
+            int ordinal = titleOrder[descending ? titleOrder.length - 1 - i : i];
+            if (matched.contains(ordinal) && rank++ >= offset) {
+                page[collected++] = ordinal;
+            }
+        }
+        return page;
+    }
+
+    private int[] sortByTitle(int[] candidates) {
+        Comparator<Integer> byTitle = Comparator
+                .comparing((Integer ordinal) -> titles[ordinal])
+                .thenComparingLong(ordinal -> bookIds[ordinal]);
+        return Arrays.stream(candidates)
+                .boxed()
+                .sorted(byTitle)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private int allocateOrdinal(long bookId) {
+        if (nextOrdinal == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, bookIds.length * 2);
+            titles = Arrays.copyOf(titles, titles.length * 2);
+        }
+        int ordinal = nextOrdinal++;
+        bookIds[ordinal] = bookId;
+        ordinals.put(bookId, ordinal);
+        return ordinal;
+    }
+
+    private void compact() {
+        int[] newOrdinals = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (titles[ordinal] == null) {
+                continue;
+            }
+            newOrdinals[ordinal] = live;
+            bookIds[live] = bookIds[ordinal];
+            titles[live] = titles[ordinal];
+            ordinals.put(bookIds[live], live);
+            live++;
+        }
+        Arrays.fill(titles, live, nextOrdinal, null);
+        nextOrdinal = live;
+        books.clear();
+        books.add(0L, live);
+        genres.replaceAll((genreId, bitmap) -> remap(bitmap, newOrdinals));
+    }
+
+    private static RoaringBitmap remap(RoaringBitmap bitmap, int[] newOrdinals) {
+        // Renumbering keeps the order, so the remapped ordinals stay sorted
+        int[] remapped = bitmap.toArray();
+        for (int i = 0; i < remapped.length; i++) {
+            remapped[i] = newOrdinals[remapped[i]];
+        }
+        RoaringBitmap result = RoaringBitmap.bitmapOf(remapped);
+        result.runOptimize();
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fenrir.masterdetail.search;
+
+import java.util.Arrays;
+
+/**
+ * Per query counts of shared trigrams keyed by document ordinal. Only touched ordinals take space, kept in
+ * insertion order behind an open addressing table, so the footprint follows the candidates of one query
+ * instead of the size of the catalog.
+ */
+class OrdinalCounter {
+    private int[] slots = new int[64];
+    private int[] ordinals = new int[32];
+    private int[] counts = new int[32];
+    private int size;
+
+    void increment(int ordinal) {
+        int slot = find(ordinal);
+        if (slots[slot] != 0) {
+            counts[slots[slot] - 1]++;
+            return;
+        }
+        if (size == ordinals.length) {
+            grow();
+            slot = find(ordinal);
+        }
+        ordinals[size] = ordinal;
+        counts[size] = 1;
+        slots[slot] = ++size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int ordinal(int index) {
+        return ordinals[index];
+    }
+
+    int count(int index) {
+        return counts[index];
+    }
+
+    private int find(int ordinal) {
+        int mask = slots.length - 1;
+        int slot = hash(ordinal) & mask;
+        while (slots[slot] != 0 && ordinals[slots[slot] - 1] != ordinal) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+        counts = Arrays.copyOf(counts, size * 2);
+        slots = new int[slots.length * 2];
+        for (int index = 0; index < size; index++) {
+            slots[find(ordinals[index])] = index + 1;
+        }
+    }
+
+    private static int hash(int ordinal) {
+        int hash = ordinal * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,41 @@
+package com.fenrir.masterdetail.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted ordinals of documents containing a trigram.
+ */
+class OrdinalPostings {
+    private int[] ordinals = new int[2];
+    private int size;
+
+    void add(int ordinal) {
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+        }
+        ordinals[size++] = ordinal;
+    }
+
+    void remove(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        size--;
+    }
+
+    void remap(int[] newOrdinals) {
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = newOrdinals[ordinals[i]];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int ordinal(int index) {
+        return ordinals[index];
+    }
+}
@@ -0,0 +1,50 @@
+package com.fenrir.masterdetail.search;
+
+import java.util.Arrays;
+
+/**
+ * Ordinals of documents containing a term together with the term frequency, kept sorted by ordinal.
+ */
+class Postings {
+    private int[] ordinals = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void add(int ordinal, int frequency) {
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        ordinals[size] = ordinal;
+        frequencies[size] = frequency;
+        size++;
+    }
+
+    void remove(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+    }
+
+    void remap(int[] newOrdinals) {
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = newOrdinals[ordinals[i]];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int ordinal(int index) {
+        return ordinals[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+}
@@ -0,0 +1,15 @@
+package com.fenrir.masterdetail.search;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class SearchHit {
+    private final long bookId;
+    private final float score;
+}
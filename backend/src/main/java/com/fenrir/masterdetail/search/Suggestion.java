@@ -0,0 +1,20 @@
+package com.fenrir.masterdetail.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class Suggestion {
+    private final String text;
+    private final Type type;
+    private final Long bookId;
+    private final long weight;
+
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+}
@@ -0,0 +1,291 @@
+package com.fenrir.masterdetail.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over normalized titles and author names. Every node caches the best suggestions of its subtree
+ * ordered by weight, so a lookup only walks the prefix and copies that list. Each word of an entry starts its
+ * own key, which lets "thr" suggest "A Game of Thrones".
+ */
+public class SuggestionIndex {
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::getWeight).reversed()
+            .thenComparing(Suggestion::getText)
+            .thenComparing(Suggestion::getType)
+            .thenComparing(Suggestion::getBookId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int maxSuggestions;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, BookEntry> books = new HashMap<>();
+    private final Map<String, AuthorEntry> authors = new HashMap<>();
+
+    public SuggestionIndex(int maxSuggestions) {
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    public void put(long bookId, String title, String author, long weight) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+            BookEntry book = new BookEntry(new Suggestion(title, Suggestion.Type.TITLE, bookId, weight), author);
+            books.put(bookId, book);
+            add(book.getSuggestion());
+            addToAuthor(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateWeight(long bookId, long weight) {
+        lock.writeLock().lock();
+        try {
+            BookEntry book = books.get(bookId);
+            if (book != null && book.getSuggestion().getWeight() != weight) {
+                Suggestion title = book.getSuggestion();
+                removeBook(bookId);
+                BookEntry updated = new BookEntry(
+                        new Suggestion(title.getText(), title.getType(), bookId, weight), book.getAuthor()
+                );
+                books.put(bookId, updated);
+                add(updated.getSuggestion());
+                addToAuthor(updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long weight(long bookId) {
+        lock.readLock().lock();
+        try {
+            BookEntry book = books.get(bookId);
+            return book != null ? book.getSuggestion().getWeight() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return List.copyOf(node.top.subList(0, Math.min(limit, node.top.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addToAuthor(BookEntry book) {
+        String key = normalize(book.getAuthor());
+        if (key.isEmpty()) {
+            return;
+        }
+        AuthorEntry author = authors.computeIfAbsent(key, k -> new AuthorEntry());
+        if (author.suggestion != null) {
+            remove(author.suggestion);
+        }
+        author.books++;
+        author.weight += book.getSuggestion().getWeight();
+        author.suggestion = new Suggestion(book.getAuthor(), Suggestion.Type.AUTHOR, null, author.weight);
+        add(author.suggestion);
+    }
+
+    private void removeBook(long bookId) {
+        BookEntry book = books.remove(bookId);
+        if (book == null) {
+            return;
+        }
+        remove(book.getSuggestion());
+
+        String key = normalize(book.getAuthor());
+        AuthorEntry author = authors.get(key);
+        if (author == null) {
+            return;
+        }
+        remove(author.suggestion);
+        author.books--;
+        author.weight -= book.getSuggestion().getWeight();
+        if (author.books == 0) {
+            authors.remove(key);
+        } else {
+            author.suggestion = new Suggestion(
+                    author.suggestion.getText(), Suggestion.Type.AUTHOR, null, author.weight
+            );
+            add(author.suggestion);
+        }
+    }
+
+    private void add(Suggestion suggestion) {
+        for (String key : keys(suggestion.getText())) {
+            Node node = root;
+            node.offer(suggestion);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                node.offer(suggestion);
+            }
+            node.entries.add(suggestion);
+        }
+    }
+
+    private void remove(Suggestion suggestion) {
+        for (String key : keys(suggestion.getText())) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length() && path[i] != null; i++) {
+                path[i + 1] = path[i].child(key.charAt(i));
+            }
+            Node terminal = path[key.length()];
+            if (terminal == null) {
+                continue;
+            }
+
+            terminal.entries.remove(suggestion);
+            for (int depth = key.length(); depth >= 0; depth--) {
+                Node node = path[depth];
+                if (node.top.contains(suggestion)) {
+                    node.recompute();
+                }
+                if (depth > 0 && node.isEmpty()) {
+                    path[depth - 1].removeChild(key.charAt(depth - 1));
+                }
+            }
+        }
+    }
+
+    private static Set<String> keys(String text) {
+        List<String> tokens = Analyzer.tokenize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", Analyzer.tokenize(text));
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class BookEntry {
+        private final Suggestion suggestion;
+        private final String author;
+    }
+
+    private static class AuthorEntry {
+        private int books;
+        private long weight;
+        private Suggestion suggestion;
+    }
+
+    private class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private final List<Suggestion> entries = new ArrayList<>(1);
+        private List<Suggestion> top = new ArrayList<>(0);
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            keys = insert(keys, insertAt, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, insertAt);
+            grown[insertAt] = child;
+            System.arraycopy(children, insertAt, grown, insertAt + 1, children.length - insertAt);
+            children = grown;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+            char[] shrunkKeys = new char[keys.length - 1];
+            Node[] shrunkChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, shrunkKeys, 0, index);
+            System.arraycopy(keys, index + 1, shrunkKeys, index, keys.length - index - 1);
+            System.arraycopy(children, 0, shrunkChildren, 0, index);
+            System.arraycopy(children, index + 1, shrunkChildren, index, children.length - index - 1);
+            keys = shrunkKeys;
+            children = shrunkChildren;
+        }
+
+        void offer(Suggestion suggestion) {
+            if (top.contains(suggestion)) {
+                return;
+            }
+            if (top.size() == maxSuggestions && RANKING.compare(suggestion, top.get(top.size() - 1)) >= 0) {
+                return;
+            }
+            int index = -Collections.binarySearch(top, suggestion, RANKING) - 1;
+            top.add(index, suggestion);
+            if (top.size() > maxSuggestions) {
+                top.remove(top.size() - 1);
+            }
+        }
+
+        void recompute() {
+            top = new ArrayList<>(0);
+            entries.forEach(this::offer);
+            for (Node child : children) {
+                child.top.forEach(this::offer);
+            }
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty() && children.length == 0;
+        }
+    }
+
+    private static char[] insert(char[] array, int index, char c) {
+        char[] grown = new char[array.length + 1];
+        System.arraycopy(array, 0, grown, 0, index);
+        grown[index] = c;
+        System.arraycopy(array, index, grown, index + 1, array.length - index);
+        return grown;
+    }
+}
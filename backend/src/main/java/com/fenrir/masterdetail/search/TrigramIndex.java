@@ -0,0 +1,252 @@
+package com.fenrir.masterdetail.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo tolerant lookup over book title and author. Trigrams select candidates sharing enough of the query,
+ * then the best candidates are re-ranked by edit distance between the query and the closest substring of
+ * their title or author. Hits with equal distance are ordered by trigram similarity (Dice coefficient).
+ */
+public class TrigramIndex {
+    private static final int MAX_CANDIDATES = 256;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::getScore)
+            .thenComparing(SearchHit::getBookId, Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, OrdinalPostings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] bookIds = new long[64];
+    private int[] trigramCounts = new int[64];
+    private String[] titles = new String[64];
+    private String[] authors = new String[64];
+    private int nextOrdinal;
+
+    public void index(long bookId, String title, String author) {
+        String normalizedTitle = normalize(title);
+        String normalizedAuthor = normalize(author);
+        long[] trigrams = trigrams(normalizedTitle + " " + normalizedAuthor);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            int ordinal = allocateOrdinal(bookId);
+            titles[ordinal] = normalizedTitle;
+            authors[ordinal] = normalizedAuthor;
+            trigramCounts[ordinal] = trigrams.length;
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new OrdinalPostings()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long[] trigrams = trigrams(normalizedQuery);
+        int maxEdits = maxEdits(normalizedQuery.length());
+        int minShared = Math.max(1, trigrams.length - 3 * maxEdits);
+
+        lock.readLock().lock();
+        try {
+            List<int[]> candidates = candidates(trigrams, minShared);
+            return rerank(normalizedQuery, trigrams.length, candidates, maxEdits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<int[]> candidates(long[] trigrams, int minShared) {
+        OrdinalCounter shared = new OrdinalCounter();
+        for (long trigram : trigrams) {
+            OrdinalPostings trigramPostings = postings.get(trigram);
+            if (trigramPostings == null) {
+                continue;
+            }
+            for (int i = 0; i < trigramPostings.size(); i++) {
+                shared.increment(trigramPostings.ordinal(i));
+            }
+        }
+
+        PriorityQueue<int[]> best = new PriorityQueue<>(MAX_CANDIDATES + 1, Comparator.comparingInt(entry -> entry[1]));
+        for (int i = 0; i < shared.size(); i++) {
+            int ordinal = shared.ordinal(i);
+            int count = shared.count(i);
+            if (count < minShared) {
+                continue;
+            }
+            if (best.size() < MAX_CANDIDATES) {
+                best.add(new int[] { ordinal, count });
+            } else if (count > best.peek()[1]) {
+                best.poll();
+                best.add(new int[] { ordinal, count });
+            }
+        }
+        return new ArrayList<>(best);
+    }
+
+    private List<SearchHit> rerank(String query, int queryTrigrams, List<int[]> candidates, int maxEdits, int limit) {
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(limit + 1, RANKING);
+        for (int[] candidate : candidates) {
+            int ordinal = candidate[0];
+            int distance = Math.min(
+                    substringDistance(query, titles[ordinal]),
+                    substringDistance(query, authors[ordinal])
+            );
+            if (distance > maxEdits) {
+                continue;
+            }
+            float similarity = 2f * candidate[1] / (queryTrigrams + trigramCounts[ordinal]);
+            SearchHit hit = new SearchHit(bookIds[ordinal], maxEdits - distance + similarity);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (RANKING.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(heap);
+        hits.sort(RANKING.reversed());
+        return hits;
+    }
+
+    /**
+     * Levenshtein distance between the query and its closest substring of the text.
+     */
+    static int substringDistance(String query, String text) {
+        int[] previous = new int[query.length() + 1];
+        int[] current = new int[query.length() + 1];
+        for (int i = 0; i <= query.length(); i++) {
+            previous[i] = i;
+        }
+
+        int best = previous[query.length()];
+        for (int j = 1; j <= text.length(); j++) {
+            current[0] = 0;
+            for (int i = 1; i <= query.length(); i++) {
+                int substitution = previous[i - 1] + (query.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+            }
+            best = Math.min(best, current[query.length()]);
+            if (best == 0) {
+                return 0;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    private static int maxEdits(int length) {
+        return Math.max(1, Math.min(3, length / 4));
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", Analyzer.tokenize(text));
+    }
+
+    private static long[] trigrams(String text) {
+        String padded = " " + text + " ";
+        long[] trigrams = new long[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private int allocateOrdinal(long bookId) {
+        if (nextOrdinal == bookIds.length) {
+            int capacity = bookIds.length * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+        }
+        int ordinal = nextOrdinal++;
+        bookIds[ordinal] = bookId;
+        ordinals.put(bookId, ordinal);
+        return ordinal;
+    }
+
+    private void removeDocument(long bookId) {
+        Integer ordinal = ordinals.remove(bookId);
+        if (ordinal == null) {
+            return;
+        }
+        for (long trigram : trigrams(titles[ordinal] + " " + authors[ordinal])) {
+            OrdinalPostings trigramPostings = postings.get(trigram);
+            trigramPostings.remove(ordinal);
+            if (trigramPostings.size() == 0) {
+                postings.remove(trigram);
+            }
+        }
+        titles[ordinal] = null;
+        authors[ordinal] = null;
+
+        if (nextOrdinal >= MIN_COMPACTION_SIZE && nextOrdinal - ordinals.size() > ordinals.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] newOrdinals = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (titles[ordinal] == null) {
+                continue;
+            }
+            newOrdinals[ordinal] = live;
+            bookIds[live] = bookIds[ordinal];
+            trigramCounts[live] = trigramCounts[ordinal];
+            titles[live] = titles[ordinal];
+            authors[live] = authors[ordinal];
+            ordinals.put(bookIds[live], live);
+            live++;
+        }
+        Arrays.fill(titles, live, nextOrdinal, null);
+        Arrays.fill(authors, live, nextOrdinal, null);
+        nextOrdinal = live;
+        postings.values().forEach(trigramPostings -> trigramPostings.remap(newOrdinals));
+    }
+}
@@ -68,11 +68,16 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                             "/api/auth/**").permitAll()
                 .antMatchers(SWAGGER).permitAll()
                 .antMatchers("/api/users/{username}/grant/**").access("hasRole('ADMIN')")
-                .antMatchers(HttpMethod.GET, "/api/users/**", "/api/books/**", "/api/reviews/**").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/books/export").access("hasRole('ADMIN')")
+                .antMatchers("/api/caches/**").access("hasRole('ADMIN')")
+                .antMatchers("/api/limits/**").access("hasRole('ADMIN')")
+                .antMatchers("/api/pools/**").access("hasRole('ADMIN')")
+                .antMatchers(HttpMethod.GET, "/api/users/**", "/api/books/**", "/api/reviews/**", "/api/genres/**").permitAll()
                 .antMatchers(HttpMethod.DELETE, "/api/books/**").access("hasRole('ADMIN')")
+                .antMatchers(HttpMethod.POST, "/api/books/import", "/api/reviews/import").access("hasRole('ADMIN')")
                 .antMatchers(HttpMethod.POST, "/api/books/**").authenticated()
                 .antMatchers("/api/users/{username}/**", "/api/reviews/{username}/**").access("hasRole('ADMIN') or @userSecurity.isResourceOwner(authentication, #username)")
-                .antMatchers("/api/users/**", "/api/books/**").access("hasRole('ADMIN')")
+                .antMatchers("/api/users/**", "/api/books/**", "/api/genres/**").access("hasRole('ADMIN')")
                 .anyRequest().authenticated();
     }
 }
@@ -34,7 +34,7 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         try {
-            String token = parseJwtToken(request);
+            String token = jwtUtils.parseJwtToken(request);
 
             if (StringUtils.hasText(token) && jwtUtils.validateToken(token)) {
                 String username = jwtUtils.extractUsername(token);
@@ -50,12 +50,4 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-
-    private String parseJwtToken(HttpServletRequest request) {
-        String authorizationHeader = request.getHeader("Authorization");
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            return authorizationHeader.substring(7);
-        }
-        return null;
-    }
 }
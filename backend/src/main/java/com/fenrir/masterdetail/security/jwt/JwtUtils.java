@@ -8,6 +8,8 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.stream.Collectors;
 
@@ -31,10 +33,31 @@ public class JwtUtils {
                 .compact();
     }
 
+    public String parseJwtToken(HttpServletRequest request) {
+        String authorizationHeader = request.getHeader("Authorization");
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            return authorizationHeader.substring(7);
+        }
+        return null;
+    }
+
     public String extractUsername(String token) {
         return extractClaims(token).getSubject();
     }
 
+    /**
+     * Checks the roles claim of a valid token without loading the user. An invalid token has no roles, it is
+     * reported once the request reaches {@link JwtTokenFilter}.
+     */
+    public boolean hasRole(String token, String role) {
+        try {
+            String roles = extractClaims(token).get("roles", String.class);
+            return roles != null && Arrays.asList(roles.split(",")).contains(role);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     private Claims extractClaims(String token) {
         return Jwts.parser()
                 .setSigningKey(secret)
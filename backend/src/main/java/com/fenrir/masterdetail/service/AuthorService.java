@@ -0,0 +1,184 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.dto.AuthorBookCountDTO;
+import com.fenrir.masterdetail.dto.BookAuthorDTO;
+import com.fenrir.masterdetail.event.BookChangedEvent;
+import com.fenrir.masterdetail.event.BooksImportedEvent;
+import com.fenrir.masterdetail.model.Author;
+import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.repository.AuthorRepository;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.search.AuthorIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class AuthorService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorService.class);
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate resolveTransactionTemplate;
+    private final Map<String, Author> authorsByName = new ConcurrentHashMap<>();
+    private final Lock rebuildLock = new ReentrantLock();
+    private volatile AuthorIndex index = new AuthorIndex();
+    private volatile AuthorIndex rebuiltIndex;
+
+    public AuthorService(
+            BookRepository bookRepository,
+            AuthorRepository authorRepository,
+            PlatformTransactionManager transactionManager) {
+
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // New authors are committed on their own so a cached id never points at a rolled back row
+        this.resolveTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.resolveTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Finds or creates the author by name. New authors are committed in a transaction of their own, so call
+     * this before starting one to avoid holding two connections at once.
+     */
+    public Author resolve(Author author) {
+        if (author == null || author.getId() != null || author.getName() == null) {
+            return author;
+        }
+        return resolveAll(List.of(author.getName())).get(author.getName());
+    }
+
+    public Map<String, Author> resolveAll(Collection<String> names) {
+        Map<String, Author> resolved = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            Author author = authorsByName.get(name);
+            if (author != null) {
+                resolved.put(name, author);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, Author> loaded;
+        try {
+            loaded = resolveTransactionTemplate.execute(status -> findOrCreate(missing));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer inserted one of the names first, so this time it is found
+            loaded = resolveTransactionTemplate.execute(status -> findOrCreate(missing));
+        }
+        authorsByName.putAll(loaded);
+        resolved.putAll(loaded);
+        return resolved;
+    }
+
+    public Page<AuthorBookCountDTO> getAll(Pageable pageable) {
+        Sort.Order sortOrder = pageable.getSort().stream().findFirst().orElse(null);
+        AuthorIndex.Order order = sortOrder != null && sortOrder.getProperty().equals("bookCount")
+                ? AuthorIndex.Order.BOOK_COUNT
+                : AuthorIndex.Order.NAME;
+        AuthorIndex.Result result = index.page(
+                order, sortOrder != null && sortOrder.isDescending(), pageable.getOffset(), pageable.getPageSize()
+        );
+        return new PageImpl<>(result.getAuthors(), pageable, result.getTotal());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        apply(target -> {
+            Book book = event.getBook();
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                target.remove(book.getId());
+            } else {
+                target.put(book.getId(), book.getAuthorName());
+            }
+        });
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+            AuthorIndex newIndex = new AuthorIndex();
+            rebuiltIndex = newIndex;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<BookAuthorDTO> bookAuthors = bookRepository.streamAllAuthors()) {
+                    bookAuthors.forEach(bookAuthor -> newIndex.put(bookAuthor.getBookId(), bookAuthor.getAuthor()));
+                }
+            });
+            index = newIndex;
+            logger.info("Counted books of {} authors in {} ms",
+                    newIndex.size(), System.currentTimeMillis() - startedAt);
+        } finally {
+            rebuiltIndex = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private Map<String, Author> findOrCreate(Set<String> names) {
+        List<Author> existing = authorRepository.findAllByNameIn(names);
+        Map<String, Author> found = new HashMap<>();
+        for (String name : names) {
+            existing.stream()
+                    .filter(author -> author.getName().equals(name))
+                    .findFirst()
+                    // Case insensitive collations match differently cased names to the same row
+                    .or(() -> existing.stream().filter(author -> author.getName().equalsIgnoreCase(name)).findFirst())
+                    .ifPresent(author -> found.put(name, author));
+        }
+
+        List<Author> created = names.stream()
+                .filter(name -> !found.containsKey(name))
+                .map(Author::new)
+                .toList();
+        authorRepository.saveAllAndFlush(created).forEach(author -> found.put(author.getName(), author));
+        return found;
+    }
+
+    private void apply(Consumer<AuthorIndex> change) {
+        change.accept(index);
+        AuthorIndex pending = rebuiltIndex;
+        if (pending != null) {
+            change.accept(pending);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.datasource.WorkloadContext;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
+import com.fenrir.masterdetail.counter.BookCounter;
+import com.fenrir.masterdetail.counter.StripedCounters;
+import com.fenrir.masterdetail.dto.BookCountersDTO;
+import com.fenrir.masterdetail.event.BookChangedEvent;
+import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.repository.BookRepository;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-book counters that are bumped on hot paths, such as views of a book. Increments only touch memory and a
+ * background task writes the accumulated deltas every flush interval, as one batch of relative updates, so a
+ * popular book costs one row update per interval instead of one per request. Rows are created for every book
+ * at startup, deltas that cannot be written are kept for the next flush and the last ones are written when
+ * the application shuts down gracefully.
+ */
+@Service
+public class BookCounterService implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(BookCounterService.class);
+    // Stops after the web server's graceful shutdown (Integer.MAX_VALUE) and its stop (Integer.MAX_VALUE - 1),
+    // so views recorded while requests drain are still flushed
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+    private static final String CREATE_MISSING_COUNTERS_SQL = """
+            INSERT INTO book_counter (book_id, name, value)
+            SELECT b.id, ?, 0 FROM book b
+            WHERE NOT EXISTS (SELECT 1 FROM book_counter c WHERE c.book_id = b.id AND c.name = ?)""";
+    private static final String SELECT_EXISTING_COUNTERS_SQL =
+            "SELECT book_id, name FROM book_counter WHERE book_id IN (:bookIds)";
+    private static final String ADD_TO_COUNTER_SQL =
+            "UPDATE book_counter SET value = value + ? WHERE book_id = ? AND name = ?";
+    // Selecting from book skips deltas of books deleted since they were counted
+    private static final String INSERT_COUNTER_SQL =
+            "INSERT INTO book_counter (book_id, name, value) SELECT id, ?, ? FROM book WHERE id = ?";
+    private static final String SELECT_COUNTER_SQL =
+            "SELECT value FROM book_counter WHERE book_id = ? AND name = ?";
+
+    private final BookRepository bookRepository;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+    private final StripedCounters<Key> counters = new StripedCounters<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public BookCounterService(
+            BookRepository bookRepository,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${bookly.counters.flush-interval:5s}") Duration flushInterval) {
+
+        this.bookRepository = bookRepository;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMillis = flushInterval.toMillis();
+    }
+
+    public void recordView(Long bookId) {
+        counters.increment(new Key(bookId, BookCounter.VIEWS));
+    }
+
+    public BookCountersDTO getCounters(Long bookId) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException(String.format("Book was not found for id=%s", bookId));
+        }
+        return new BookCountersDTO(bookId, get(bookId, BookCounter.VIEWS));
+    }
+
+    /**
+     * Writes the deltas counted since the previous flush. Deltas of a failed flush are put back and retried
+     * with the next one.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Key, Long> deltas = counters.drain();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(deltas));
+            } catch (RuntimeException e) {
+                counters.addAll(deltas);
+                logger.warn("Flushing {} book counters failed, retrying with the next flush: {}",
+                        deltas.size(), e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            for (BookCounter counter : BookCounter.values()) {
+                counters.remove(new Key(event.getBook().getId(), counter));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        WorkloadType previous = WorkloadContext.enter(WorkloadType.BATCH);
+        try {
+            createMissingCounters();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("book-counters-"));
+        scheduler.scheduleWithFixedDelay(
+                this::flushInBackground, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS
+        );
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushInBackground();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private long get(Long bookId, BookCounter counter) {
+        List<Long> persisted = jdbcTemplate.queryForList(SELECT_COUNTER_SQL, Long.class, bookId, counter.name());
+        long value = persisted.isEmpty() ? 0 : persisted.get(0);
+        return value + counters.get(new Key(bookId, counter));
+    }
+
+    private void createMissingCounters() {
+        for (BookCounter counter : BookCounter.values()) {
+            int created = jdbcTemplate.update(CREATE_MISSING_COUNTERS_SQL, counter.name(), counter.name());
+            if (created > 0) {
+                logger.info("Created {} missing {} book counters", created, counter);
+            }
+        }
+    }
+
+    private void flushInBackground() {
+        WorkloadType previous = WorkloadContext.enter(WorkloadType.BATCH);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Book counter flush failed", e);
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private void write(Map<Key, Long> deltas) {
+        Set<Key> existing = findExisting(deltas.keySet());
+        List<Map.Entry<Key, Long>> updates = new ArrayList<>();
+        List<Map.Entry<Key, Long>> inserts = new ArrayList<>();
+        deltas.entrySet().forEach(delta -> (existing.contains(delta.getKey()) ? updates : inserts).add(delta));
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_TO_COUNTER_SQL, updates, updates.size(), (ps, delta) -> {
+                ps.setLong(1, delta.getValue());
+                ps.setLong(2, delta.getKey().getBookId());
+                ps.setString(3, delta.getKey().getCounter().name());
+            });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_COUNTER_SQL, inserts, inserts.size(), (ps, delta) -> {
+                ps.setString(1, delta.getKey().getCounter().name());
+                ps.setLong(2, delta.getValue());
+                ps.setLong(3, delta.getKey().getBookId());
+            });
+        }
+    }
+
+    private Set<Key> findExisting(Set<Key> keys) {
+        Set<Long> bookIds = keys.stream().map(Key::getBookId).collect(Collectors.toSet());
+        Set<Key> existing = new HashSet<>();
+        namedJdbcTemplate.query(SELECT_EXISTING_COUNTERS_SQL, Map.of("bookIds", bookIds), rs -> {
+            existing.add(new Key(rs.getLong("book_id"), BookCounter.valueOf(rs.getString("name"))));
+        });
+        return existing;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    private static class Key {
+        private final Long bookId;
+        private final BookCounter counter;
+    }
+}
@@ -0,0 +1,133 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.deadline.DeadlineContext;
+import com.fenrir.masterdetail.dto.BookDetailDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
+import com.fenrir.masterdetail.dto.StatisticsDTO;
+import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.model.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Composes everything the book page shows. Review parts are looked up in parallel on a bounded pool while the
+ * book itself is loaded on the calling thread. A part that fails, times out or finds the pool full is left
+ * out and named in {@link BookDetailDTO#getUnavailable()}, only a missing book fails the whole request.
+ */
+@Service
+public class BookDetailService {
+    static final String STATS = "stats";
+    static final String REVIEWS = "reviews";
+    static final String OWN_REVIEW = "ownReview";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookDetailService.class);
+
+    private final HotReadService hotReadService;
+    private final ReviewService reviewService;
+    private final ThreadPoolExecutor executor;
+    private final long partTimeoutNanos;
+
+    public BookDetailService(
+            HotReadService hotReadService,
+            ReviewService reviewService,
+            @Value("${bookly.detail.threads:8}") int threads,
+            @Value("${bookly.detail.queue-capacity:100}") int queueCapacity,
+            @Value("${bookly.detail.part-timeout:2s}") Duration partTimeout) {
+
+        this.hotReadService = hotReadService;
+        this.reviewService = reviewService;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("book-detail-")
+        );
+        this.partTimeoutNanos = partTimeout.toNanos();
+    }
+
+    public BookDetailDTO get(Long bookId, Pageable reviewPage, String username) {
+        // All parts start together, so one deadline gives each of them the same timeout
+        long partTimeout = DeadlineContext.current()
+                .map(requestDeadline -> Math.min(partTimeoutNanos, requestDeadline.remainingNanos()))
+                .orElse(partTimeoutNanos);
+        long deadline = System.nanoTime() + partTimeout;
+        Future<StatisticsDTO> stats = submit(() -> hotReadService.getBookStatistics(bookId));
+        Future<Page<ReviewResponseDTO>> reviews = submit(() -> reviewService.getAll(bookId, reviewPage));
+        Future<Optional<ReviewResponseDTO>> ownReview = username == null
+                ? CompletableFuture.completedFuture(Optional.empty())
+                : submit(() -> findOwnReview(username, bookId));
+
+        Book book;
+        try {
+            book = hotReadService.getBook(bookId);
+        } catch (RuntimeException e) {
+            List.of(stats, reviews, ownReview).forEach(part -> part.cancel(true));
+            throw e;
+        }
+
+        List<String> unavailable = new ArrayList<>();
+        StatisticsDTO statsResult = await(STATS, stats, deadline, unavailable);
+        Page<ReviewResponseDTO> reviewsResult = await(REVIEWS, reviews, deadline, unavailable);
+        Optional<ReviewResponseDTO> ownReviewResult = await(OWN_REVIEW, ownReview, deadline, unavailable);
+        return new BookDetailDTO(
+                book,
+                statsResult,
+                reviewsResult,
+                ownReviewResult != null ? ownReviewResult.orElse(null) : null,
+                unavailable
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Optional<ReviewResponseDTO> findOwnReview(String username, Long bookId) {
+        try {
+            return Optional.of(reviewService.get(username, bookId));
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> part) {
+        try {
+            return executor.submit(DeadlineContext.wrap(part));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(String name, Future<T> part, long deadline, List<String> unavailable) {
+        try {
+            return part.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Book detail part {} unavailable: {}", name, e.getCause() != null ? e.getCause() : e);
+        }
+        part.cancel(true);
+        unavailable.add(name);
+        return null;
+    }
+}
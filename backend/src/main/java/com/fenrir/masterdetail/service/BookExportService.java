@@ -0,0 +1,107 @@
+package com.fenrir.masterdetail.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.config.datasource.Workload;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
+import com.fenrir.masterdetail.dto.ExportFormat;
+import com.fenrir.masterdetail.io.CsvRecordWriter;
+import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+public class BookExportService {
+    private static final Logger logger = LoggerFactory.getLogger(BookExportService.class);
+    private static final int CLEAR_INTERVAL = 1000;
+    private static final List<String> CSV_HEADER =
+            List.of("id", "title", "author", "description", "cover", "createdAt", "updatedAt");
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookExportService(
+            BookRepository bookRepository,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Workload(WorkloadType.BATCH)
+    public void export(ExportFormat format, LocalDateTime updatedSince, OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long count = transactionTemplate.execute(status -> {
+            try (Stream<Book> books = updatedSince == null
+                    ? bookRepository.streamAll()
+                    : bookRepository.streamAllUpdatedSince(updatedSince)) {
+                return write(format, books.iterator(), writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info("Exported {} books as {}", count, format);
+    }
+
+    private long write(ExportFormat format, Iterator<Book> books, Writer writer) throws IOException {
+        CsvRecordWriter csvWriter = new CsvRecordWriter(writer);
+        if (format == ExportFormat.CSV) {
+            csvWriter.write(CSV_HEADER);
+        }
+
+        long count = 0;
+        while (books.hasNext()) {
+            Book book = books.next();
+            if (format == ExportFormat.CSV) {
+                csvWriter.write(toFields(book));
+            } else {
+                writer.write(objectMapper.writeValueAsString(book));
+                writer.write('\n');
+            }
+
+            if (++count % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private List<String> toFields(Book book) {
+        return Arrays.asList(
+                String.valueOf(book.getId()),
+                book.getTitle(),
+                book.getAuthorName(),
+                book.getDescription(),
+                book.getCover(),
+                Objects.toString(book.getCreatedAt(), null),
+                Objects.toString(book.getUpdatedAt(), null)
+        );
+    }
+}
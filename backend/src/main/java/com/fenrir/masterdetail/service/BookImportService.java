@@ -0,0 +1,189 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.datasource.Workload;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+import com.fenrir.masterdetail.event.BooksImportedEvent;
+import com.fenrir.masterdetail.io.MalformedRecordException;
+import com.fenrir.masterdetail.io.RecordReader;
+import com.fenrir.masterdetail.model.Author;
+import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.model.converter.CompressedText;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class BookImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+    private static final String INSERT_BOOK_SQL =
+            "INSERT INTO book (title, author_id, cover, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_DESCRIPTION_SQL =
+            "INSERT INTO book_description (book_id, description) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final AuthorService authorService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public BookImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            AuthorService authorService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${bookly.import.batch-size:1000}") int batchSize) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.authorService = authorService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @Workload(WorkloadType.BATCH)
+    public ImportSummaryDTO importBooks(RecordReader reader) throws IOException {
+        ImportTracker tracker = new ImportTracker();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        while (true) {
+            Map<String, String> record;
+            try {
+                record = reader.next();
+            } catch (MalformedRecordException e) {
+                tracker.reject(reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+
+            Book book = toBook(record);
+            Set<ConstraintViolation<Book>> violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                tracker.reject(reader.getLineNumber(), describe(violations));
+                continue;
+            }
+
+            batch.add(new ImportRow(reader.getLineNumber(), book));
+            if (batch.size() == batchSize) {
+                insertBatch(batch, tracker);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, tracker);
+        }
+
+        ImportSummaryDTO summary = tracker.toSummary();
+        logger.info("Imported {} books ({} rejected) in {} ms",
+                summary.getAccepted(), summary.getRejected(), summary.getElapsedMillis());
+        if (summary.getAccepted() > 0) {
+            eventPublisher.publishEvent(new BooksImportedEvent(summary.getAccepted()));
+        }
+        return summary;
+    }
+
+    private void insertBatch(List<ImportRow> batch, ImportTracker tracker) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            Map<String, Author> authors = authorService.resolveAll(
+                    batch.stream().map(row -> row.getBook().getAuthorName()).collect(Collectors.toSet())
+            );
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = insertBooks(batch, authors, now);
+                List<Object[]> descriptions = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    String description = batch.get(i).getBook().getDescription();
+                    if (description != null) {
+                        descriptions.add(new Object[] { ids.get(i), CompressedText.encode(description) });
+                    }
+                }
+                jdbcTemplate.batchUpdate(INSERT_DESCRIPTION_SQL, descriptions);
+            });
+            tracker.accept(batch.size());
+        } catch (DataAccessException e) {
+            logger.error("Book import batch failed: {}", e.getMessage());
+            batch.forEach(row -> tracker.reject(row.getLine(), "Batch rejected by database"));
+        }
+    }
+
+    private List<Long> insertBooks(List<ImportRow> batch, Map<String, Author> authors, Timestamp now) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_BOOK_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (ImportRow row : batch) {
+                    Book book = row.getBook();
+                    ps.setString(1, book.getTitle());
+                    ps.setLong(2, authors.get(book.getAuthorName()).getId());
+                    ps.setString(3, book.getCover());
+                    ps.setTimestamp(4, now);
+                    ps.setTimestamp(5, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>(batch.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private Book toBook(Map<String, String> record) {
+        return new Book(
+                trimToNull(record.get("title")),
+                trimToNull(record.get("author")),
+                trimToNull(record.get("description")),
+                trimToNull(record.get("cover"))
+        );
+    }
+
+    private String trimToNull(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    private String describe(Set<ConstraintViolation<Book>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class ImportRow {
+        private final long line;
+        private final Book book;
+    }
+}
@@ -0,0 +1,169 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.event.BookChangedEvent;
+import com.fenrir.masterdetail.dto.BookReviewCountDTO;
+import com.fenrir.masterdetail.event.BooksImportedEvent;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.repository.ReviewRepository;
+import com.fenrir.masterdetail.search.BookSearchIndex;
+import com.fenrir.masterdetail.search.SearchHit;
+import com.fenrir.masterdetail.search.Suggestion;
+import com.fenrir.masterdetail.search.SuggestionIndex;
+import com.fenrir.masterdetail.search.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Service
+public class BookSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchService.class);
+    private static final int MAX_RESULTS = 100;
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private final BookRepository bookRepository;
+    private final ReviewRepository reviewRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Lock rebuildLock = new ReentrantLock();
+    private volatile Indexes indexes = new Indexes();
+    private volatile Indexes rebuiltIndexes;
+
+    public BookSearchService(
+            BookRepository bookRepository,
+            ReviewRepository reviewRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+
+        this.bookRepository = bookRepository;
+        this.reviewRepository = reviewRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> search(String query, int size, boolean fuzzy) {
+        int limit = Math.max(1, Math.min(size, MAX_RESULTS));
+        List<SearchHit> hits = fuzzy
+                ? indexes.trigrams.search(query, limit)
+                : indexes.search.search(query, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = hits.stream()
+                .map(SearchHit::getBookId)
+                .toList();
+        Map<Long, Integer> ranks = IntStream.range(0, ids.size())
+                .boxed()
+                .collect(Collectors.toMap(ids::get, Function.identity()));
+        return bookRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(book -> ranks.get(book.getId())))
+                .toList();
+    }
+
+    public List<Suggestion> suggest(String prefix, int size) {
+        return indexes.suggestions.suggest(prefix, Math.max(1, Math.min(size, MAX_SUGGESTIONS)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        apply(indexes, event);
+        Indexes pending = rebuiltIndexes;
+        if (pending != null) {
+            apply(pending, event);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewsChanged(ReviewsChangedEvent event) {
+        Map<Long, Long> reviewCounts = transactionTemplate.execute(status ->
+                reviewRepository.countReviewsByBook(event.getBookIds()).stream()
+                        .collect(Collectors.toMap(BookReviewCountDTO::getBookId, BookReviewCountDTO::getReviewCount))
+        );
+        event.getBookIds().forEach(bookId ->
+                indexes.suggestions.updateWeight(bookId, reviewCounts.getOrDefault(bookId, 0L))
+        );
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+            Indexes newIndexes = new Indexes();
+            rebuiltIndexes = newIndexes;
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Long> reviewCounts = reviewRepository.countReviewsByBook().stream()
+                        .collect(Collectors.toMap(BookReviewCountDTO::getBookId, BookReviewCountDTO::getReviewCount));
+                try (Stream<Book> books = bookRepository.streamAll()) {
+                    int count = 0;
+                    for (Book book : (Iterable<Book>) books::iterator) {
+                        newIndexes.add(book, reviewCounts.getOrDefault(book.getId(), 0L));
+                        if (++count % CLEAR_INTERVAL == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+            });
+            indexes = newIndexes;
+            logger.info("Indexed {} books for search in {} ms",
+                    newIndexes.search.size(), System.currentTimeMillis() - startedAt);
+        } finally {
+            rebuiltIndexes = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private void apply(Indexes target, BookChangedEvent event) {
+        Book book = event.getBook();
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            target.search.remove(book.getId());
+            target.suggestions.remove(book.getId());
+            target.trigrams.remove(book.getId());
+        } else {
+            target.add(book, target.suggestions.weight(book.getId()));
+        }
+    }
+
+    private static class Indexes {
+        private final BookSearchIndex search = new BookSearchIndex();
+        private final SuggestionIndex suggestions = new SuggestionIndex(MAX_SUGGESTIONS);
+        private final TrigramIndex trigrams = new TrigramIndex();
+
+        void add(Book book, long weight) {
+            search.index(book.getId(), book.getTitle(), book.getAuthorName(), book.getDescription());
+            suggestions.put(book.getId(), book.getTitle(), book.getAuthorName(), weight);
+            trigrams.index(book.getId(), book.getTitle(), book.getAuthorName());
+        }
+    }
+}
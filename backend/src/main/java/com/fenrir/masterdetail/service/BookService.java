@@ -1,47 +1,169 @@
 package com.fenrir.masterdetail.service;
 
 import com.fenrir.masterdetail.dto.StatisticsDTO;
+import com.fenrir.masterdetail.event.BookChangedEvent;
+import com.fenrir.masterdetail.exception.PreconditionFailedException;
 import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.model.Author;
 import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.model.BookDescription;
 import com.fenrir.masterdetail.model.Review;
+import com.fenrir.masterdetail.repository.BookDescriptionRepository;
 import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.search.GenreIndex;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @AllArgsConstructor
 @Service
 public class BookService {
     private BookRepository bookRepository;
+    private BookDescriptionRepository bookDescriptionRepository;
+    private GenreService genreService;
+    private AuthorService authorService;
+    private ApplicationEventPublisher eventPublisher;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
 
+    @Transactional(readOnly = true)
     public Book get(Long id) {
-        return getById(id);
+        Book book = getById(id);
+        bookDescriptionRepository.findById(id)
+                .ifPresent(description -> book.setDescription(description.getDescription()));
+        return book;
     }
 
+    @Transactional(readOnly = true)
     public Page<Book> getAll(Pageable pageable) {
         return bookRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
+    public Page<Book> getAll(Pageable pageable, String author, List<String> genres, boolean matchAllGenres) {
+        if (genres == null || genres.isEmpty()) {
+            return author == null ? getAll(pageable) : bookRepository.findAllByAuthorName(author, pageable);
+        }
+
+        Sort.Order sortOrder = pageable.getSort().stream().findFirst().orElse(null);
+        GenreIndex.Order order = toGenreIndexOrder(sortOrder);
+        if (order == null || author != null) {
+            // The index can neither sort by other columns nor filter by author, so let the database join
+            // book_genre rather than pass it every matching id
+            Set<String> genreNames = genres.stream()
+                    .map(genre -> genre.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            long minGenres = matchAllGenres ? genreNames.size() : 1;
+            return author == null
+                    ? bookRepository.findAllByGenres(genreNames, minGenres, pageable)
+                    : bookRepository.findAllByAuthorNameAndGenres(author, genreNames, minGenres, pageable);
+        }
+
+        GenreIndex.Result matched = genreService.findBookIds(
+                genres, matchAllGenres, order, sortOrder != null && sortOrder.isDescending(),
+                pageable.getOffset(), pageable.getPageSize()
+        );
+        return new PageImpl<>(findAllByIdInOrder(matched.getBookIds()), pageable, matched.getTotal());
+    }
+
+    /**
+     * The author is resolved before the transaction starts, since a new author is committed in a transaction
+     * of its own, which would otherwise need a second connection while this one is held.
+     */
     public Book create(Book book) {
         book.setId(null);
-        return bookRepository.save(book);
+        book.setAuthor(authorService.resolve(book.getAuthor()));
+        return transactionTemplate.execute(status -> {
+            Book createdBook = bookRepository.save(book);
+            saveDescription(createdBook.getId(), book.getDescription());
+            eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.SAVED, createdBook));
+            return createdBook;
+        });
     }
 
     public Book update(Long id, Book book) {
-        Book bookToUpdate = getById(id);
-        bookToUpdate.setTitle(book.getTitle());
-        bookToUpdate.setAuthor(book.getAuthor());
-        bookToUpdate.setDescription(book.getDescription());
-        bookToUpdate.setCover(book.getCover());
-        return bookRepository.save(bookToUpdate);
+        return update(id, book, null);
+    }
+
+    /**
+     * Updates the book when it still has the expected version, or unconditionally when none is given. The
+     * version is checked again when the row is written, so an edit committed in between is not overwritten.
+     * The author is resolved before the transaction starts, as in {@link #create}.
+     */
+    public Book update(Long id, Book book, Long expectedVersion) {
+        Author author = authorService.resolve(book.getAuthor());
+        return transactionTemplate.execute(status -> {
+            Book bookToUpdate = getById(id);
+            if (expectedVersion != null && !expectedVersion.equals(bookToUpdate.getVersion())) {
+                throw new PreconditionFailedException(String.format(
+                        "Book with id=%d has version %s, not %s", id, bookToUpdate.getVersion(), expectedVersion
+                ));
+            }
+            Long versionBefore = bookToUpdate.getVersion();
+            bookToUpdate.setTitle(book.getTitle());
+            bookToUpdate.setAuthor(author);
+            bookToUpdate.setDescription(book.getDescription());
+            bookToUpdate.setCover(book.getCover());
+            // Flushed here so a conflicting edit is detected before the description is written
+            Book updatedBook = bookRepository.saveAndFlush(bookToUpdate);
+            if (Objects.equals(versionBefore, updatedBook.getVersion())) {
+                // The book row was unchanged, but the description lives in its own table, so the version is
+                // bumped here instead, checked against the version read above
+                entityManager.lock(updatedBook, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            }
+            saveDescription(id, book.getDescription());
+            eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.SAVED, updatedBook));
+            return updatedBook;
+        });
     }
 
+    @Transactional
     public void delete(Long id) {
         Book book = getById(id);
         bookRepository.delete(book);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
+    }
+
+    private void saveDescription(Long bookId, String description) {
+        if (description != null) {
+            bookDescriptionRepository.save(new BookDescription(bookId, description));
+        } else if (bookDescriptionRepository.existsById(bookId)) {
+            bookDescriptionRepository.deleteById(bookId);
+        }
+    }
+
+    private List<Book> findAllByIdInOrder(List<Long> ids) {
+        Map<Long, Integer> positions = IntStream.range(0, ids.size())
+                .boxed()
+                .collect(Collectors.toMap(ids::get, Function.identity()));
+        return bookRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(book -> positions.get(book.getId())))
+                .toList();
+    }
+
+    private GenreIndex.Order toGenreIndexOrder(Sort.Order sortOrder) {
+        if (sortOrder == null || sortOrder.getProperty().equals("id")) {
+            return GenreIndex.Order.ID;
+        }
+        return sortOrder.getProperty().equals("title") ? GenreIndex.Order.TITLE : null;
     }
 
     private Book getById(Long id) {
@@ -0,0 +1,208 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.dto.BookGenreDTO;
+import com.fenrir.masterdetail.event.BookChangedEvent;
+import com.fenrir.masterdetail.event.BooksImportedEvent;
+import com.fenrir.masterdetail.event.GenreAssignmentEvent;
+import com.fenrir.masterdetail.event.GenreChangedEvent;
+import com.fenrir.masterdetail.exception.DuplicateGenreException;
+import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.model.Genre;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.repository.GenreRepository;
+import com.fenrir.masterdetail.search.GenreIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class GenreService {
+    private static final Logger logger = LoggerFactory.getLogger(GenreService.class);
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private final GenreRepository genreRepository;
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Lock rebuildLock = new ReentrantLock();
+    private volatile GenreIndex index = new GenreIndex();
+    private volatile GenreIndex rebuiltIndex;
+
+    public GenreService(
+            GenreRepository genreRepository,
+            BookRepository bookRepository,
+            EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+
+        this.genreRepository = genreRepository;
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Genre> getAll() {
+        return genreRepository.findAll(Sort.by("name"));
+    }
+
+    @Transactional
+    public Genre create(Genre genre) {
+        if (genreRepository.existsByName(genre.getName())) {
+            throw new DuplicateGenreException(
+                    String.format("Genre already exists for name=%s", genre.getName())
+            );
+        }
+        genre.setId(null);
+        Genre createdGenre = genreRepository.save(genre);
+        eventPublisher.publishEvent(new GenreChangedEvent(GenreChangedEvent.Type.CREATED, createdGenre));
+        return createdGenre;
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        Genre genre = getById(id);
+        genreRepository.delete(genre);
+        eventPublisher.publishEvent(new GenreChangedEvent(GenreChangedEvent.Type.DELETED, genre));
+    }
+
+    @Transactional
+    public void assign(Long genreId, Long bookId) {
+        Genre genre = getById(genreId);
+        Book book = getBookById(bookId);
+        if (book.getGenres().add(genre)) {
+            eventPublisher.publishEvent(new GenreAssignmentEvent(genreId, bookId, true));
+        }
+    }
+
+    @Transactional
+    public void unassign(Long genreId, Long bookId) {
+        Genre genre = getById(genreId);
+        Book book = getBookById(bookId);
+        if (book.getGenres().remove(genre)) {
+            eventPublisher.publishEvent(new GenreAssignmentEvent(genreId, bookId, false));
+        }
+    }
+
+    public GenreIndex.Result findBookIds(Collection<String> genreNames, boolean matchAll, GenreIndex.Order order,
+                                         boolean descending, long offset, int size) {
+        return index.filter(genreNames, matchAll, order, descending, offset, size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        apply(target -> {
+            Book book = event.getBook();
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                target.removeBook(book.getId());
+            } else {
+                target.putBook(book.getId(), book.getTitle());
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        apply(target -> {
+            Genre genre = event.getGenre();
+            if (event.getType() == GenreChangedEvent.Type.DELETED) {
+                target.removeGenre(genre.getId());
+            } else {
+                target.putGenre(genre.getId(), genre.getName());
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onGenreAssignment(GenreAssignmentEvent event) {
+        apply(target -> {
+            if (event.isAssigned()) {
+                target.assign(event.getGenreId(), event.getBookId());
+            } else {
+                target.unassign(event.getGenreId(), event.getBookId());
+            }
+        });
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+            GenreIndex newIndex = new GenreIndex();
+            rebuiltIndex = newIndex;
+            transactionTemplate.executeWithoutResult(status -> {
+                genreRepository.findAll().forEach(genre -> newIndex.putGenre(genre.getId(), genre.getName()));
+                try (Stream<Book> books = bookRepository.streamAll()) {
+                    int count = 0;
+                    for (Book book : (Iterable<Book>) books::iterator) {
+                        newIndex.putBook(book.getId(), book.getTitle());
+                        if (++count % CLEAR_INTERVAL == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+                for (BookGenreDTO bookGenre : genreRepository.findAllBookGenres()) {
+                    newIndex.assign(bookGenre.getGenreId(), bookGenre.getBookId());
+                }
+            });
+            newIndex.optimize();
+            index = newIndex;
+            logger.info("Indexed book genres in {} ms", System.currentTimeMillis() - startedAt);
+        } finally {
+            rebuiltIndex = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private void apply(Consumer<GenreIndex> change) {
+        change.accept(index);
+        GenreIndex pending = rebuiltIndex;
+        if (pending != null) {
+            change.accept(pending);
+        }
+    }
+
+    private Genre getById(Long id) {
+        return genreRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Genre was not found for id=%d", id)
+                ));
+    }
+
+    private Book getBookById(Long id) {
+        return bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Book was not found for id=%d", id)
+                ));
+    }
+}
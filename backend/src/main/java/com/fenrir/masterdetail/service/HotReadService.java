@@ -0,0 +1,91 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.cache.SingleFlightCache;
+import com.fenrir.masterdetail.config.deadline.Deadline;
+import com.fenrir.masterdetail.config.deadline.DeadlineContext;
+import com.fenrir.masterdetail.dto.StatisticsDTO;
+import com.fenrir.masterdetail.event.BookChangedEvent;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.model.Book;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Single-flight cache in front of the reads every book page makes, so a burst of requests for one book costs
+ * one query per read instead of one per request. Entries are dropped once a change to them commits. A load is
+ * shared by every caller that arrives while it runs, so it runs under the server's default deadline rather
+ * than whichever request started it, whose own may be much shorter.
+ */
+@Service
+public class HotReadService {
+    private final BookService bookService;
+    private final ReviewService reviewService;
+    private final SingleFlightCache<Long, Book> books;
+    private final SingleFlightCache<Long, StatisticsDTO> statistics;
+    private final Duration loadTimeout;
+
+    public HotReadService(
+            BookService bookService,
+            ReviewService reviewService,
+            @Value("${bookly.cache.ttl:30s}") Duration ttl,
+            @Value("${bookly.cache.max-entries:10000}") int maxEntries,
+            @Value("${bookly.deadline.default-timeout:10s}") Duration loadTimeout) {
+
+        this.bookService = bookService;
+        this.reviewService = reviewService;
+        this.loadTimeout = loadTimeout;
+        this.books = new SingleFlightCache<>(ttl, maxEntries);
+        this.statistics = new SingleFlightCache<>(ttl, maxEntries);
+    }
+
+    public Book getBook(Long id) {
+        return books.get(id, sharedLoad(bookService::get));
+    }
+
+    public StatisticsDTO getBookStatistics(Long bookId) {
+        return statistics.get(bookId, sharedLoad(reviewService::getBooksStatistics));
+    }
+
+    public Map<String, SingleFlightCache.Stats> getStats() {
+        return Map.of(
+                "books", books.getStats(),
+                "bookStatistics", statistics.getStats()
+        );
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        Long bookId = event.getBook().getId();
+        books.invalidate(bookId);
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            statistics.invalidate(bookId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewsChanged(ReviewsChangedEvent event) {
+        event.getBookIds().forEach(statistics::invalidate);
+    }
+
+    private <V> Function<Long, V> sharedLoad(Function<Long, V> loader) {
+        return key -> {
+            if (DeadlineContext.current().isEmpty()) {
+                return loader.apply(key);
+            }
+            // A request already out of time does not start a load for the others
+            DeadlineContext.checkNotExpired();
+            Deadline deadline = loadTimeout.isZero() ? null : Deadline.after(loadTimeout);
+            Deadline previous = DeadlineContext.enter(deadline);
+            try {
+                return loader.apply(key);
+            } finally {
+                DeadlineContext.restore(previous);
+            }
+        };
+    }
+}
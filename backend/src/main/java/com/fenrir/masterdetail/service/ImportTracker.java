@@ -0,0 +1,41 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.dto.ImportRejectionDTO;
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ImportTracker {
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private final long startedAt = System.currentTimeMillis();
+    private final List<ImportRejectionDTO> rejections = new ArrayList<>();
+    private long accepted;
+    private long rejected;
+    private long batches;
+
+    void accept(int count) {
+        accepted += count;
+        batches++;
+    }
+
+    void reject(long line, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+            rejections.add(new ImportRejectionDTO(line, reason));
+        }
+    }
+
+    ImportSummaryDTO toSummary() {
+        long elapsedMillis = System.currentTimeMillis() - startedAt;
+        return new ImportSummaryDTO(
+                accepted,
+                rejected,
+                batches,
+                elapsedMillis,
+                accepted * 1000 / Math.max(elapsedMillis, 1),
+                rejections
+        );
+    }
+}
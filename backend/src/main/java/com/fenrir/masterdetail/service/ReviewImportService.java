@@ -0,0 +1,269 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.datasource.Workload;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.io.MalformedRecordException;
+import com.fenrir.masterdetail.io.RecordReader;
+import com.fenrir.masterdetail.model.converter.CompressedText;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ReviewImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewImportService.class);
+    private static final int MAX_CONTENT_LENGTH = 1000;
+    private static final String SELECT_USERS_SQL = "SELECT id, username FROM user";
+    private static final String SELECT_BOOK_IDS_SQL = "SELECT id FROM book WHERE id IN (:ids)";
+    private static final String SELECT_EXISTING_REVIEWS_SQL =
+            "SELECT book_id, user_id FROM review WHERE book_id IN (:bookIds) AND user_id IN (:userIds)";
+    private static final String INSERT_REVIEW_SQL =
+            "INSERT INTO review (book_id, user_id, content, created_at, rate, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public ReviewImportService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${bookly.import.batch-size:1000}") int batchSize) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @Workload(WorkloadType.BATCH)
+    public ImportSummaryDTO importReviews(RecordReader reader) throws IOException {
+        ImportTracker tracker = new ImportTracker();
+        ImportContext context = new ImportContext(loadUserIds());
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+
+        while (true) {
+            Map<String, String> record;
+            try {
+                record = reader.next();
+            } catch (MalformedRecordException e) {
+                tracker.reject(reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+
+            try {
+                chunk.add(toRow(reader.getLineNumber(), record, context));
+            } catch (MalformedRecordException e) {
+                tracker.reject(reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, context, tracker);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, context, tracker);
+        }
+
+        if (!context.getAffectedBookIds().isEmpty()) {
+            eventPublisher.publishEvent(new ReviewsChangedEvent(context.getAffectedBookIds()));
+        }
+
+        ImportSummaryDTO summary = tracker.toSummary();
+        logger.info("Imported {} reviews ({} rejected) for {} books in {} ms",
+                summary.getAccepted(), summary.getRejected(), context.getAffectedBookIds().size(),
+                summary.getElapsedMillis());
+        return summary;
+    }
+
+    private Map<String, Long> loadUserIds() {
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.getJdbcTemplate().query(SELECT_USERS_SQL, rs -> {
+            userIds.put(rs.getString("username"), rs.getLong("id"));
+        });
+        return userIds;
+    }
+
+    private ImportRow toRow(long line, Map<String, String> record, ImportContext context) {
+        String username = record.get("username");
+        Long userId = context.getUserIds().get(username);
+        if (userId == null) {
+            throw new MalformedRecordException(String.format("User was not found for username=%s", username));
+        }
+
+        Long bookId = parseLong("bookId", record.get("bookId"));
+        long rate = parseLong("rate", record.get("rate"));
+        if (rate < 1 || rate > 5) {
+            throw new MalformedRecordException("rate: must be between 1 and 5");
+        }
+
+        String content = StringUtils.hasText(record.get("content")) ? record.get("content") : null;
+        if (content != null && content.length() > MAX_CONTENT_LENGTH) {
+            throw new MalformedRecordException(String.format("content: size must be at most %d", MAX_CONTENT_LENGTH));
+        }
+
+        LocalDateTime createdAt = parseDateTime("createdAt", record.get("createdAt"));
+        LocalDateTime updatedAt = parseDateTime("updatedAt", record.get("updatedAt"));
+        return new ImportRow(
+                line,
+                new ReviewKey(bookId, userId),
+                content,
+                (int) rate,
+                createdAt,
+                updatedAt != null ? updatedAt : createdAt
+        );
+    }
+
+    private void importChunk(List<ImportRow> chunk, ImportContext context, ImportTracker tracker) {
+        resolveBookIds(chunk, context);
+        Set<ReviewKey> existing = findExistingReviews(chunk);
+
+        List<ImportRow> batch = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            ReviewKey key = row.getKey();
+            if (context.getMissingBookIds().contains(key.getBookId())) {
+                tracker.reject(row.getLine(), String.format("Book was not found for id=%s", key.getBookId()));
+            } else if (existing.contains(key) || !context.getImportedKeys().add(key)) {
+                tracker.reject(row.getLine(), "Review already exists");
+            } else {
+                batch.add(row);
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, context, tracker);
+        }
+    }
+
+    private void resolveBookIds(List<ImportRow> chunk, ImportContext context) {
+        Set<Long> unknown = chunk.stream()
+                .map(row -> row.getKey().getBookId())
+                .filter(id -> !context.getKnownBookIds().contains(id) && !context.getMissingBookIds().contains(id))
+                .collect(Collectors.toSet());
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        List<Long> found = jdbcTemplate.queryForList(
+                SELECT_BOOK_IDS_SQL, new MapSqlParameterSource("ids", unknown), Long.class
+        );
+        context.getKnownBookIds().addAll(found);
+        found.forEach(unknown::remove);
+        context.getMissingBookIds().addAll(unknown);
+    }
+
+    private Set<ReviewKey> findExistingReviews(List<ImportRow> chunk) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("bookIds", chunk.stream().map(row -> row.getKey().getBookId()).collect(Collectors.toSet()))
+                .addValue("userIds", chunk.stream().map(row -> row.getKey().getUserId()).collect(Collectors.toSet()));
+        Set<ReviewKey> existing = new HashSet<>();
+        jdbcTemplate.query(SELECT_EXISTING_REVIEWS_SQL, parameters, rs -> {
+            existing.add(new ReviewKey(rs.getLong("book_id"), rs.getLong("user_id")));
+        });
+        return existing;
+    }
+
+    private void insertBatch(List<ImportRow> batch, ImportContext context, ImportTracker tracker) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_REVIEW_SQL, batch, batch.size(), (ps, row) -> {
+                        ps.setLong(1, row.getKey().getBookId());
+                        ps.setLong(2, row.getKey().getUserId());
+                        ps.setBytes(3, CompressedText.encode(row.getContent()));
+                        ps.setTimestamp(4, row.getCreatedAt() != null ? Timestamp.valueOf(row.getCreatedAt()) : now);
+                        ps.setInt(5, row.getRate());
+                        ps.setTimestamp(6, row.getUpdatedAt() != null ? Timestamp.valueOf(row.getUpdatedAt()) : now);
+                    })
+            );
+            tracker.accept(batch.size());
+            batch.forEach(row -> context.getAffectedBookIds().add(row.getKey().getBookId()));
+        } catch (DataAccessException e) {
+            logger.error("Review import batch failed: {}", e.getMessage());
+            batch.forEach(row -> {
+                context.getImportedKeys().remove(row.getKey());
+                tracker.reject(row.getLine(), "Batch rejected by database");
+            });
+        }
+    }
+
+    private Long parseLong(String field, String value) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new MalformedRecordException(String.format("%s: must be a number", field));
+        }
+    }
+
+    private LocalDateTime parseDateTime(String field, String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new MalformedRecordException(String.format("%s: must be an ISO-8601 date-time", field));
+        }
+    }
+
+    @Getter
+    private static class ImportContext {
+        private final Map<String, Long> userIds;
+        private final Set<Long> knownBookIds = new HashSet<>();
+        private final Set<Long> missingBookIds = new HashSet<>();
+        private final Set<ReviewKey> importedKeys = new HashSet<>();
+        private final Set<Long> affectedBookIds = new HashSet<>();
+
+        ImportContext(Map<String, Long> userIds) {
+            this.userIds = userIds;
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    private static class ReviewKey {
+        private final Long bookId;
+        private final Long userId;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class ImportRow {
+        private final long line;
+        private final ReviewKey key;
+        private final String content;
+        private final Integer rate;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+    }
+}
@@ -1,76 +1,203 @@
 package com.fenrir.masterdetail.service;
 
+import com.fenrir.masterdetail.dto.CursorPageDTO;
+import com.fenrir.masterdetail.dto.ReviewCursor;
 import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
 import com.fenrir.masterdetail.dto.StatisticsDTO;
 import com.fenrir.masterdetail.dto.mapper.ReviewMapper;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.exception.DuplicateReviewException;
+import com.fenrir.masterdetail.exception.PreconditionFailedException;
 import com.fenrir.masterdetail.exception.ResourceNotFoundException;
-import com.fenrir.masterdetail.model.Book;
 import com.fenrir.masterdetail.model.Review;
-import com.fenrir.masterdetail.model.User;
 import com.fenrir.masterdetail.repository.BookRepository;
 import com.fenrir.masterdetail.repository.ReviewRepository;
 import com.fenrir.masterdetail.repository.UserRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @AllArgsConstructor
 @Service
 public class ReviewService {
+    private static final int MAX_TIMELINE_SIZE = 100;
+    private static final String DUPLICATE_KEY_SQL_STATE = "23505";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
     private ReviewRepository reviewRepository;
     private BookRepository bookRepository;
     private UserRepository userRepository;
     private ReviewMapper reviewMapper;
+    private ApplicationEventPublisher eventPublisher;
+    private Validator validator;
+    private ReviewWriteBehindService reviewWriteBehindService;
+
+    @Transactional(readOnly = true)
+    public ReviewResponseDTO get(String username, Long bookId) {
+        return reviewRepository.findResponseByUsernameAndBookId(username, bookId)
+                .orElseThrow(() -> reviewNotFound(username, bookId));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReviewResponseDTO> getAll(String username, Pageable pageable) {
+        return reviewRepository.findResponsesByUsername(username, pageable);
+    }
 
-    public Review get(String username, Long bookId) {
-        return getByUsernameAndBookId(username, bookId);
+    @Transactional(readOnly = true)
+    public Page<ReviewResponseDTO> getAll(Long bookId, Pageable pageable) {
+        return reviewRepository.findResponsesByBookId(bookId, pageable);
     }
 
-    public Page<Review> getAll(String username, Pageable pageable) {
-        return reviewRepository.findAllByUser_Username(username, pageable);
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReviewResponseDTO> getBookTimeline(Long bookId, String cursor, int size) {
+        Pageable pageable = timelinePageable(size);
+        Slice<ReviewResponseDTO> reviews = cursor == null
+                ? reviewRepository.findBookTimeline(bookId, pageable)
+                : findBookTimelineBefore(bookId, ReviewCursor.decode(cursor), pageable);
+        return reviewMapper.toCursorPageDTO(reviews, review -> review.getId().getUserId());
     }
 
-    public Page<Review> getAll(Long bookId, Pageable pageable) {
-        return reviewRepository.findAllByBook_Id(bookId, pageable);
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReviewResponseDTO> getUserTimeline(String username, String cursor, int size) {
+        Pageable pageable = timelinePageable(size);
+        Slice<ReviewResponseDTO> reviews = userRepository.findIdByUsername(username)
+                .map(userId -> cursor == null
+                        ? reviewRepository.findUserTimeline(userId, pageable)
+                        : findUserTimelineBefore(userId, ReviewCursor.decode(cursor), pageable))
+                .orElseGet(() -> new SliceImpl<>(List.of(), pageable, false));
+        return reviewMapper.toCursorPageDTO(reviews, review -> review.getId().getBookId());
     }
 
+    @Transactional(readOnly = true)
     public StatisticsDTO getBooksStatistics(Long bookId) {
         List<Review> shelves = reviewRepository.findAllByBook_Id(bookId);
         return reviewMapper.toStatisticsDTO(bookId, shelves);
     }
 
-    public Review create(ReviewRequestDTO request, String username, Long bookId) {
-        User user = userRepository.findByUsername(username)
+    @Transactional
+    public ReviewResponseDTO create(ReviewRequestDTO request, String username, Long bookId) {
+        Long userId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         String.format("User was not found for username=%s", username)
                 ));
-        Book book = bookRepository.findById(bookId)
+        ReviewResponseDTO.ReviewedBook book = bookRepository.findReviewedBookById(bookId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         String.format("Book was not found for id=%s", bookId)
                 ));
-        Review review = reviewMapper.fromReviewRequestDTO(request, user, book);
-        return reviewRepository.save(review);
+        Review review = reviewMapper.fromReviewRequestDTO(request, userId, bookId);
+        try {
+            review = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            throw new DuplicateReviewException(
+                    String.format("Review already exists for user=%s and bookId=%s", username, bookId), e
+            );
+        }
+        eventPublisher.publishEvent(new ReviewsChangedEvent(Set.of(bookId)));
+        return reviewMapper.toReviewResponseDTO(review, username, book);
     }
 
-    public Review update(ReviewRequestDTO request, String username, Long bookId) {
+    @Transactional
+    public ReviewResponseDTO update(ReviewRequestDTO request, String username, Long bookId) {
         Review reviewToUpdate = getByUsernameAndBookId(username, bookId);
         reviewToUpdate.setRate(request.getRate());
         reviewToUpdate.setContent(request.getContent());
-        return reviewRepository.save(reviewToUpdate);
+        Review review = reviewRepository.save(reviewToUpdate);
+        // Flushed here so the response carries the incremented version
+        reviewRepository.flush();
+        eventPublisher.publishEvent(new ReviewsChangedEvent(Set.of(bookId)));
+        return reviewMapper.toReviewResponseDTO(review, username, reviewMapper.toReviewedBook(review.getBook()));
     }
 
+    /**
+     * Updates the review in one statement that only applies while it still has the expected version, so
+     * concurrent edits are detected without reading the review first.
+     */
+    @Transactional
+    public ReviewResponseDTO update(ReviewRequestDTO request, String username, Long bookId, Long expectedVersion) {
+        Set<ConstraintViolation<ReviewRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        int updated = reviewRepository.updateIfVersionMatches(
+                username, bookId, expectedVersion, request.getContent(), request.getRate(), LocalDateTime.now()
+        );
+        if (updated == 0) {
+            ReviewResponseDTO current = get(username, bookId);
+            throw new PreconditionFailedException(String.format(
+                    "Review for user=%s and bookId=%s has version %s, not %s",
+                    username, bookId, current.getVersion(), expectedVersion
+            ));
+        }
+        eventPublisher.publishEvent(new ReviewsChangedEvent(Set.of(bookId)));
+        return get(username, bookId);
+    }
+
+    /**
+     * Not transactional, so no connection is held while waiting for queued writes to the review; they would
+     * otherwise be applied after the delete and update or recreate it.
+     */
     public void delete(String username, Long bookId) {
+        userRepository.findIdByUsername(username)
+                .ifPresent(userId -> reviewWriteBehindService.awaitSettled(new Review.Id(userId, bookId)));
         Review review = getByUsernameAndBookId(username, bookId);
         reviewRepository.delete(review);
+        eventPublisher.publishEvent(new ReviewsChangedEvent(Set.of(bookId)));
     }
 
+    private Slice<ReviewResponseDTO> findBookTimelineBefore(Long bookId, ReviewCursor cursor, Pageable pageable) {
+        return reviewRepository.findBookTimelineBefore(bookId, cursor.getCreatedAt(), cursor.getId(), pageable);
+    }
+
+    private Slice<ReviewResponseDTO> findUserTimelineBefore(Long userId, ReviewCursor cursor, Pageable pageable) {
+        return reviewRepository.findUserTimelineBefore(userId, cursor.getCreatedAt(), cursor.getId(), pageable);
+    }
+
+    private Pageable timelinePageable(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_TIMELINE_SIZE)));
+    }
+
+    @Transactional(readOnly = true)
     public Review getByUsernameAndBookId(String username, Long bookId) {
         return reviewRepository.findByUser_UsernameAndBookId(username, bookId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Review was not found for user=%s and bookId=%s", username, bookId)
-                ));
+                .orElseThrow(() -> reviewNotFound(username, bookId));
+    }
+
+    /**
+     * A duplicate key is SQL state 23505, except on MySQL, which reports every integrity violation as 23000 and
+     * tells a duplicate key apart by its error code.
+     */
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return DUPLICATE_KEY_SQL_STATE.equals(sqlException.getSQLState())
+                        || sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY;
+            }
+        }
+        return false;
+    }
+
+    private ResourceNotFoundException reviewNotFound(String username, Long bookId) {
+        return new ResourceNotFoundException(
+                String.format("Review was not found for user=%s and bookId=%s", username, bookId)
+        );
     }
 }
@@ -0,0 +1,581 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.datasource.WorkloadContext;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
+import com.fenrir.masterdetail.config.deadline.DeadlineContext;
+import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.dto.ReviewWriteAcceptedDTO;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.exception.DuplicateReviewException;
+import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.exception.WriteFailedException;
+import com.fenrir.masterdetail.exception.WriteNotAppliedException;
+import com.fenrir.masterdetail.exception.WriteQueueFullException;
+import com.fenrir.masterdetail.model.Review;
+import com.fenrir.masterdetail.model.converter.CompressedText;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.repository.ReviewRepository;
+import com.fenrir.masterdetail.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind path for review creates and updates. A write is validated on the calling thread and
+ * queued, and a single flusher thread applies whatever has queued up in one transaction: writes to the same
+ * review are coalesced, updates are applied in one batch and creates inserted in another. A create for a
+ * review that exists by then, or an update for one that no longer does, is dropped and reported. Each
+ * accepted write gets a token a later read can wait on to see it. The queue is bounded, a write that finds
+ * it full waits briefly and is then turned away, and it is drained before a graceful shutdown completes.
+ */
+@Service
+public class ReviewWriteBehindService implements SmartLifecycle {
+    public static final String WRITE_TOKEN_HEADER = "X-Write-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewWriteBehindService.class);
+    // Stops after the web server's graceful shutdown (Integer.MAX_VALUE) and its stop (Integer.MAX_VALUE - 1),
+    // so requests finishing during shutdown can still enqueue
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+    private static final long FLUSHER_POLL_MILLIS = 100;
+    private static final String SELECT_EXISTING_REVIEWS_SQL =
+            "SELECT book_id, user_id FROM review WHERE book_id IN (:bookIds) AND user_id IN (:userIds)";
+    private static final String UPDATE_REVIEW_SQL =
+            "UPDATE review SET content = ?, rate = ?, updated_at = ?, version = version + 1 WHERE book_id = ? AND user_id = ?";
+    private static final String INSERT_REVIEW_SQL =
+            "INSERT INTO review (book_id, user_id, content, created_at, rate, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String NOT_WRITTEN = "the review could not be written";
+    private static final String ALREADY_EXISTS = "the review already exists";
+    private static final String NO_LONGER_EXISTS = "the review no longer exists";
+
+    private final ReviewRepository reviewRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private final long readTimeoutNanos;
+    private final int failedRetention;
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final Map<Review.Id, Integer> pendingByReview = new ConcurrentHashMap<>();
+    private final Set<Long> unapplied = ConcurrentHashMap.newKeySet();
+    // Why the most recent dropped writes were not applied, oldest first; guarded by appliedLock
+    private final Map<Long, String> failed = new LinkedHashMap<>();
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger enqueuing = new AtomicInteger();
+    private final ReentrantLock appliedLock = new ReentrantLock();
+    private final Condition appliedChanged = appliedLock.newCondition();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ReviewWriteBehindService(
+            ReviewRepository reviewRepository,
+            BookRepository bookRepository,
+            UserRepository userRepository,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${bookly.reviews.write-behind.enabled:false}") boolean enabled,
+            @Value("${bookly.reviews.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${bookly.reviews.write-behind.batch-size:500}") int batchSize,
+            @Value("${bookly.reviews.write-behind.offer-timeout:100ms}") Duration offerTimeout,
+            @Value("${bookly.reviews.write-behind.read-timeout:2s}") Duration readTimeout) {
+
+        this.reviewRepository = reviewRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.readTimeoutNanos = readTimeout.toNanos();
+        this.failedRetention = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(readOnly = true)
+    public ReviewWriteAcceptedDTO create(ReviewRequestDTO request, String username, Long bookId) {
+        validate(request);
+        Review.Id key = new Review.Id(findUserId(username), bookId);
+        if (bookRepository.findReviewedBookById(bookId).isEmpty()) {
+            throw new ResourceNotFoundException(String.format("Book was not found for id=%s", bookId));
+        }
+        if (reviewRepository.existsById(key)) {
+            throw duplicateReview(username, bookId);
+        }
+        return enqueue(WriteType.CREATE, key, request, username);
+    }
+
+    @Transactional(readOnly = true)
+    public ReviewWriteAcceptedDTO update(ReviewRequestDTO request, String username, Long bookId) {
+        validate(request);
+        Review.Id key = new Review.Id(findUserId(username), bookId);
+        if (!pendingByReview.containsKey(key) && !reviewRepository.existsById(key)) {
+            throw new ResourceNotFoundException(
+                    String.format("Review was not found for user=%s and bookId=%s", username, bookId)
+            );
+        }
+        return enqueue(WriteType.UPDATE, key, request, username);
+    }
+
+    /**
+     * Waits until the write the token was issued for has been applied, and fails if it was dropped instead.
+     * Tokens from before a restart were applied during the graceful shutdown, so they and malformed tokens
+     * are not waited on.
+     */
+    public void awaitApplied(String token) {
+        long writeSequence = parseToken(token);
+        if (writeSequence < 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + waitTimeoutNanos();
+        appliedLock.lock();
+        try {
+            while (unapplied.contains(writeSequence)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new WriteNotAppliedException(
+                            String.format("Review write %s has not been applied yet, try again later", token)
+                    );
+                }
+                appliedChanged.awaitNanos(remaining);
+            }
+            String reason = failed.get(writeSequence);
+            if (reason != null) {
+                throw new WriteFailedException(String.format("Review write %s was not applied: %s", token, reason));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteNotAppliedException(String.format("Interrupted waiting for review write %s", token));
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until no write to the review is queued or being flushed, so one applied later does not undo a
+     * delete of it.
+     */
+    public void awaitSettled(Review.Id key) {
+        if (!pendingByReview.containsKey(key)) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + waitTimeoutNanos();
+        appliedLock.lock();
+        try {
+            while (pendingByReview.containsKey(key)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new WriteNotAppliedException(String.format(
+                            "Review writes for userId=%s and bookId=%s are still pending, try again later",
+                            key.getUserId(), key.getBookId()
+                    ));
+                }
+                appliedChanged.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteNotAppliedException(String.format(
+                    "Interrupted waiting for review writes for userId=%s and bookId=%s",
+                    key.getUserId(), key.getBookId()
+            ));
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "review-write-behind");
+        flusher.start();
+    }
+
+    /**
+     * Lets the flusher finish the batch it holds and then drains what is still queued on the calling thread,
+     * so shutdown waits for accepted writes rather than dropping them.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        WorkloadType previous = WorkloadContext.enter(WorkloadType.BATCH);
+        try {
+            drainQueue();
+        } finally {
+            WorkloadContext.restore(previous);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private ReviewWriteAcceptedDTO enqueue(WriteType type, Review.Id key, ReviewRequestDTO request, String username) {
+        // Counted before checking running, so the flusher does not exit while a write is on its way in
+        enqueuing.incrementAndGet();
+        try {
+            if (!running) {
+                throw new WriteQueueFullException("Review writes are not being accepted, try again later");
+            }
+            pendingByReview.compute(key, (k, count) -> {
+                if (type == WriteType.CREATE && count != null) {
+                    throw duplicateReview(username, key.getBookId());
+                }
+                return count == null ? 1 : count + 1;
+            });
+
+            long writeSequence = sequence.incrementAndGet();
+            unapplied.add(writeSequence);
+            LocalDateTime now = LocalDateTime.now();
+            PendingWrite write = new PendingWrite(
+                    writeSequence, type, key, request.getContent(), request.getRate(), now, now
+            );
+            if (!offer(write)) {
+                unapplied.remove(writeSequence);
+                release(key);
+                throw new WriteQueueFullException("Review write queue is full, try again later");
+            }
+            return new ReviewWriteAcceptedDTO(epoch + "." + writeSequence, username, key.getBookId());
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+    }
+
+    private boolean offer(PendingWrite write) {
+        try {
+            return queue.offer(write, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runFlusher() {
+        WorkloadContext.enter(WorkloadType.BATCH);
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running) {
+            PendingWrite first;
+            try {
+                first = queue.poll(FLUSHER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flushBatch(batch);
+            }
+        }
+    }
+
+    private void drainQueue() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        // A write still counted in enqueuing is about to be queued or turned away now that running is false
+        while (enqueuing.get() > 0 || !queue.isEmpty()) {
+            if (queue.drainTo(batch, batchSize) == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            flushBatch(batch);
+        }
+    }
+
+    private void flushBatch(List<PendingWrite> batch) {
+        try {
+            flush(batch);
+        } catch (RuntimeException e) {
+            logger.error("Review write-behind flush failed", e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        Map<Review.Id, PendingWrite> coalesced = new LinkedHashMap<>();
+        batch.forEach(write -> coalesced.merge(write.getKey(), write, PendingWrite::followedBy));
+        List<PendingWrite> rows = new ArrayList<>(coalesced.values());
+
+        Map<Review.Id, String> rejected = new HashMap<>();
+        boolean flushed = false;
+        try {
+            try {
+                rejected.putAll(apply(rows));
+            } catch (DataAccessException | TransactionException e) {
+                logger.warn("Batched write of {} reviews failed, applying them one by one: {}", rows.size(), e.getMessage());
+                rows.forEach(row -> {
+                    String reason = applyAlone(row);
+                    if (reason != null) {
+                        rejected.put(row.getKey(), reason);
+                    }
+                });
+            }
+            flushed = true;
+        } finally {
+            settle(batch, flushed ? rejected : null);
+        }
+
+        rejected.forEach((key, reason) -> logger.warn("Dropped review write for userId={} and bookId={}: {}",
+                key.getUserId(), key.getBookId(), reason));
+
+        Set<Long> bookIds = rows.stream()
+                .filter(row -> !rejected.containsKey(row.getKey()))
+                .map(row -> row.getKey().getBookId())
+                .collect(Collectors.toSet());
+        if (!bookIds.isEmpty()) {
+            eventPublisher.publishEvent(new ReviewsChangedEvent(bookIds));
+        }
+    }
+
+    private String applyAlone(PendingWrite row) {
+        try {
+            return apply(List.of(row)).get(row.getKey());
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("Review write for userId={} and bookId={} failed: {}",
+                    row.getKey().getUserId(), row.getKey().getBookId(), e.getMessage());
+            return NOT_WRITTEN;
+        }
+    }
+
+    /**
+     * Marks the batch's writes as no longer pending once their transaction is over. A write is recorded as
+     * failed before it leaves the unapplied set, so a reader never sees it as neither; without the rejected
+     * reviews, none of the batch is known to have been written.
+     */
+    private void settle(List<PendingWrite> batch, Map<Review.Id, String> rejected) {
+        appliedLock.lock();
+        try {
+            for (PendingWrite write : batch) {
+                String reason = rejected == null ? NOT_WRITTEN : rejected.get(write.getKey());
+                if (reason != null) {
+                    failed.put(write.getSequence(), reason);
+                }
+                unapplied.remove(write.getSequence());
+                release(write.getKey());
+            }
+            Iterator<Long> oldest = failed.keySet().iterator();
+            while (failed.size() > failedRetention) {
+                oldest.next();
+                oldest.remove();
+            }
+            appliedChanged.signalAll();
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the rows in one transaction and returns why any of them were left out.
+     */
+    private Map<Review.Id, String> apply(List<PendingWrite> rows) {
+        return transactionTemplate.execute(status -> {
+            Set<Review.Id> existing = findExisting(rows);
+            Map<Review.Id, String> rejected = new HashMap<>();
+            List<PendingWrite> updates = new ArrayList<>();
+            List<PendingWrite> inserts = new ArrayList<>();
+            for (PendingWrite row : rows) {
+                boolean exists = existing.contains(row.getKey());
+                if (row.getType() == WriteType.CREATE) {
+                    if (exists) {
+                        rejected.put(row.getKey(), ALREADY_EXISTS);
+                    } else {
+                        inserts.add(row);
+                    }
+                } else if (exists) {
+                    updates.add(row);
+                } else {
+                    rejected.put(row.getKey(), NO_LONGER_EXISTS);
+                }
+            }
+
+            if (!updates.isEmpty()) {
+                int[][] counts = jdbcTemplate.getJdbcTemplate().batchUpdate(
+                        UPDATE_REVIEW_SQL, updates, updates.size(), (ps, row) -> {
+                            ps.setBytes(1, CompressedText.encode(row.getContent()));
+                            ps.setInt(2, row.getRate());
+                            ps.setTimestamp(3, Timestamp.valueOf(row.getWrittenAt()));
+                            ps.setLong(4, row.getKey().getBookId());
+                            ps.setLong(5, row.getKey().getUserId());
+                        });
+                // A review deleted since it was looked up matches no row rather than being recreated
+                int index = 0;
+                for (int[] chunk : counts) {
+                    for (int count : chunk) {
+                        if (count == 0) {
+                            rejected.put(updates.get(index).getKey(), NO_LONGER_EXISTS);
+                        }
+                        index++;
+                    }
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_REVIEW_SQL, inserts, inserts.size(), (ps, row) -> {
+                    ps.setLong(1, row.getKey().getBookId());
+                    ps.setLong(2, row.getKey().getUserId());
+                    ps.setBytes(3, CompressedText.encode(row.getContent()));
+                    ps.setTimestamp(4, Timestamp.valueOf(row.getCreatedAt()));
+                    ps.setInt(5, row.getRate());
+                    ps.setTimestamp(6, Timestamp.valueOf(row.getWrittenAt()));
+                });
+            }
+            return rejected;
+        });
+    }
+
+    private Set<Review.Id> findExisting(List<PendingWrite> rows) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("bookIds", rows.stream().map(row -> row.getKey().getBookId()).collect(Collectors.toSet()))
+                .addValue("userIds", rows.stream().map(row -> row.getKey().getUserId()).collect(Collectors.toSet()));
+        Set<Review.Id> existing = new HashSet<>();
+        jdbcTemplate.query(SELECT_EXISTING_REVIEWS_SQL, parameters, rs -> {
+            existing.add(new Review.Id(rs.getLong("user_id"), rs.getLong("book_id")));
+        });
+        return existing;
+    }
+
+    private long waitTimeoutNanos() {
+        return DeadlineContext.current()
+                .map(requestDeadline -> Math.min(readTimeoutNanos, requestDeadline.remainingNanos()))
+                .orElse(readTimeoutNanos);
+    }
+
+    private void release(Review.Id key) {
+        pendingByReview.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private long parseToken(String token) {
+        if (token == null) {
+            return -1;
+        }
+        int separator = token.indexOf('.');
+        if (separator < 0 || !epoch.equals(token.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void validate(ReviewRequestDTO request) {
+        Set<ConstraintViolation<ReviewRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private Long findUserId(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("User was not found for username=%s", username)
+                ));
+    }
+
+    private DuplicateReviewException duplicateReview(String username, Long bookId) {
+        return new DuplicateReviewException(
+                String.format("Review already exists for user=%s and bookId=%s", username, bookId)
+        );
+    }
+
+    private enum WriteType {
+        CREATE,
+        UPDATE
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class PendingWrite {
+        private final long sequence;
+        private final WriteType type;
+        private final Review.Id key;
+        private final String content;
+        private final Integer rate;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime writtenAt;
+
+        /**
+         * A later write to the same review replaces its content and rate but keeps whether it creates the
+         * review and when it was created.
+         */
+        PendingWrite followedBy(PendingWrite later) {
+            return new PendingWrite(later.sequence, type, key, later.content, later.rate, createdAt, later.writtenAt);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fenrir.masterdetail.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
+import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.repository.ReviewRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streams public listings as NDJSON, reading them a keyset page at a time. Each page is read in its own short
+ * transaction and written out after it ends, so a slow client holds back the next page without holding on to
+ * a database connection while it reads.
+ */
+@Service
+public class StreamingReadService {
+    private final BookRepository bookRepository;
+    private final ReviewRepository reviewRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+
+    public StreamingReadService(
+            BookRepository bookRepository,
+            ReviewRepository reviewRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${bookly.streaming.page-size:500}") int pageSize) {
+
+        this.bookRepository = bookRepository;
+        this.reviewRepository = reviewRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    public void streamBooks(long afterId, OutputStream output) throws IOException {
+        stream(output, (Book last) -> bookRepository.findAllAfter(last == null ? afterId : last.getId(), pageRequest()));
+    }
+
+    public void streamReviews(Long bookId, OutputStream output) throws IOException {
+        stream(output, (ReviewResponseDTO last) -> last == null
+                ? reviewRepository.findBookTimeline(bookId, pageRequest()).getContent()
+                : reviewRepository.findBookTimelineBefore(
+                        bookId, last.getCreatedAt(), last.getId().getUserId(), pageRequest()
+                ).getContent());
+    }
+
+    /**
+     * Writes pages until one comes back short, reading each from the last row of the one before.
+     */
+    private <T> void stream(OutputStream output, Function<T, List<T>> nextPage) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        T last = null;
+        List<T> page;
+        do {
+            T after = last;
+            page = transactionTemplate.execute(status -> nextPage.apply(after));
+            for (T row : page) {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            writer.flush();
+            if (!page.isEmpty()) {
+                last = page.get(page.size() - 1);
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private Pageable pageRequest() {
+        return PageRequest.of(0, pageSize);
+    }
+}
@@ -1,5 +1,7 @@
 package com.fenrir.masterdetail.service;
 
+import com.fenrir.masterdetail.config.datasource.Workload;
+import com.fenrir.masterdetail.config.datasource.WorkloadType;
 import com.fenrir.masterdetail.dto.*;
 import com.fenrir.masterdetail.dto.mapper.UserMapper;
 import com.fenrir.masterdetail.exception.DuplicateCredentialsException;
@@ -85,12 +87,14 @@ public class UserService {
         return userMapper.toUserResponseDTO(user);
     }
 
+    @Workload(WorkloadType.ADMIN)
     @Transactional
     public Page<UserResponseDTO> getAll(Pageable pageable) {
         return userRepository.findAll(pageable)
                 .map(userMapper::toUserResponseDTO);
     }
 
+    @Workload(WorkloadType.ADMIN)
     @Transactional
     public void updateRole(String username, Role role) {
         User user = getByUsername(username);
@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:ADD_BOOK_VERSION_COLUMN
+ALTER TABLE `book` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+
+-- changeset Karol Hetman:ADD_REVIEW_VERSION_COLUMN
+ALTER TABLE `review` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
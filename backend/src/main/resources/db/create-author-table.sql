@@ -0,0 +1,31 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_AUTHOR_TABLE
+CREATE TABLE `author`
+(
+    `id`   bigint       NOT NULL AUTO_INCREMENT,
+    `name` varchar(255) NOT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `UK_author_name` (`name`)
+);
+
+-- changeset Karol Hetman:MOVE_BOOK_AUTHOR_TO_AUTHOR_TABLE
+INSERT INTO `author` (`name`)
+SELECT DISTINCT `author`
+FROM `book`
+WHERE `author` IS NOT NULL
+ORDER BY `author`;
+
+ALTER TABLE `book` ADD COLUMN `author_id` bigint DEFAULT NULL;
+
+UPDATE `book`
+SET `author_id` = (SELECT `id` FROM `author` WHERE `author`.`name` = `book`.`author`);
+
+DROP INDEX `IDX_book_author` ON `book`;
+
+ALTER TABLE `book` DROP COLUMN `author`;
+
+CREATE INDEX `IDX_book_author_id` ON `book` (`author_id`);
+
+ALTER TABLE `book`
+    ADD CONSTRAINT `author_id_FK` FOREIGN KEY (`author_id`) REFERENCES `author` (`id`);
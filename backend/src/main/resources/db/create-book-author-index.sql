@@ -0,0 +1,4 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_BOOK_AUTHOR_INDEX
+CREATE INDEX `IDX_book_author` ON `book` (`author`);
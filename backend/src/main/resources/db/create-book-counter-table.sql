@@ -0,0 +1,11 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_BOOK_COUNTER_TABLE
+CREATE TABLE `book_counter`
+(
+    `book_id` bigint      NOT NULL,
+    `name`    varchar(32) NOT NULL,
+    `value`   bigint      NOT NULL DEFAULT 0,
+    PRIMARY KEY (`book_id`, `name`),
+    CONSTRAINT `book_counter_book_id_FK` FOREIGN KEY (`book_id`) REFERENCES `book` (`id`) ON DELETE CASCADE
+);
@@ -0,0 +1,18 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_BOOK_DESCRIPTION_TABLE
+CREATE TABLE `book_description`
+(
+    `book_id`     bigint        NOT NULL,
+    `description` varchar(5000) NOT NULL,
+    PRIMARY KEY (`book_id`),
+    CONSTRAINT `book_description_book_id_FK` FOREIGN KEY (`book_id`) REFERENCES `book` (`id`) ON DELETE CASCADE
+);
+
+-- changeset Karol Hetman:MOVE_BOOK_DESCRIPTION_TO_SIDE_TABLE
+INSERT INTO `book_description` (`book_id`, `description`)
+SELECT `id`, `description`
+FROM `book`
+WHERE `description` IS NOT NULL;
+
+ALTER TABLE `book` DROP COLUMN `description`;
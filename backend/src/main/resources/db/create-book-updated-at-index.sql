@@ -0,0 +1,4 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_BOOK_UPDATED_AT_INDEX
+CREATE INDEX `IDX_book_updated_at` ON `book` (`updated_at`);
@@ -0,0 +1,6 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_COMPRESSED_TEXT_COLUMNS
+ALTER TABLE `book_description` ADD COLUMN `description_data` varbinary(20001) DEFAULT NULL;
+
+ALTER TABLE `review` ADD COLUMN `content_data` varbinary(4001) DEFAULT NULL;
@@ -0,0 +1,41 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_GENRE_TABLE
+CREATE TABLE `genre`
+(
+    `id`   bigint      NOT NULL AUTO_INCREMENT,
+    `name` varchar(50) NOT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `UK_genre_name` (`name`)
+);
+
+-- changeset Karol Hetman:CREATE_BOOK_GENRE_TABLE
+CREATE TABLE `book_genre`
+(
+    `book_id`  bigint NOT NULL,
+    `genre_id` bigint NOT NULL,
+    PRIMARY KEY (`book_id`, `genre_id`),
+    CONSTRAINT `book_genre_book_id_FK` FOREIGN KEY (`book_id`) REFERENCES `book` (`id`) ON DELETE CASCADE,
+    CONSTRAINT `book_genre_genre_id_FK` FOREIGN KEY (`genre_id`) REFERENCES `genre` (`id`) ON DELETE CASCADE
+);
+
+CREATE INDEX `IDX_book_genre_genre_id` ON `book_genre` (`genre_id`);
+
+-- changeset Karol Hetman:SEED_GENRES
+INSERT INTO genre (id, name)
+VALUES (1, 'fantasy'),
+       (2, 'science-fiction');
+
+INSERT INTO book_genre (book_id, genre_id)
+VALUES (1, 1),
+       (2, 1),
+       (3, 1),
+       (4, 1),
+       (5, 1),
+       (6, 1),
+       (7, 2),
+       (8, 2),
+       (9, 2),
+       (10, 2),
+       (11, 2),
+       (12, 2);
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:CREATE_REVIEW_TIMELINE_INDEXES
+CREATE INDEX `IDX_review_book_id_created_at` ON `review` (`book_id`, `created_at`);
+CREATE INDEX `IDX_review_user_id_created_at` ON `review` (`user_id`, `created_at`);
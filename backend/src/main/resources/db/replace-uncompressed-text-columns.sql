@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+
+-- changeset Karol Hetman:REPLACE_UNCOMPRESSED_TEXT_COLUMNS
+ALTER TABLE `book_description` DROP COLUMN `description`;
+
+ALTER TABLE `book_description` RENAME COLUMN `description_data` TO `description`;
+
+ALTER TABLE `review` DROP COLUMN `content`;
+
+ALTER TABLE `review` RENAME COLUMN `content_data` TO `content`;
@@ -0,0 +1,185 @@
+package com.fenrir.masterdetail.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    public void get_should_share_one_load_between_concurrent_callers() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(TTL, 100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get(1L, key -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "book " + key;
+                })));
+            }
+            while (cache.getStats().getCoalesced() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("book 1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getStats().getLoads()).isEqualTo(1);
+        assertThat(cache.getStats().getCoalesced()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    public void get_should_return_cached_value_within_ttl() {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(TTL, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> "load " + loads.incrementAndGet());
+        String value = cache.get(1L, key -> "load " + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("load 1");
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_should_not_keep_failed_loads() {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(TTL, 100);
+
+        assertThatThrownBy(() -> cache.get(1L, key -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(1L, key -> "recovered")).isEqualTo("recovered");
+        assertThat(cache.getStats().getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_should_pass_load_failure_to_waiting_callers() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(TTL, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> loader = executor.submit(() -> cache.get(1L, key -> {
+                await(release);
+                throw new IllegalArgumentException("missing");
+            }));
+            while (cache.getStats().getLoads() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<String> waiter = executor.submit(() -> cache.get(1L, key -> "unused"));
+            while (cache.getStats().getCoalesced() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> loader.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invalidate_should_drop_load_in_flight() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(TTL, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> cache.get(1L, key -> {
+                await(release);
+                return "stale";
+            }));
+            while (cache.getStats().getLoads() == 0) {
+                Thread.onSpinWait();
+            }
+            cache.invalidate(1L);
+            release.countDown();
+
+            assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(cache.get(1L, key -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    public void get_should_only_coalesce_when_ttl_is_zero() {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(Duration.ZERO, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> "load " + loads.incrementAndGet());
+        String value = cache.get(1L, key -> "load " + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("load 2");
+        assertThat(cache.getStats().getSize()).isZero();
+    }
+
+    @Test
+    public void get_should_refresh_hot_key_before_it_expires() throws Exception {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(Duration.ofMillis(300), 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        long startedAt = System.nanoTime();
+        cache.get(1L, key -> {
+            sleep(30);
+            return "load " + loads.incrementAndGet();
+        });
+        while (cache.getStats().getEarlyRefreshes() == 0 && System.nanoTime() - startedAt < 315_000_000L) {
+            cache.get(1L, key -> "load " + loads.incrementAndGet());
+            sleep(1);
+        }
+
+        assertThat(cache.getStats().getEarlyRefreshes()).isEqualTo(1);
+        assertThat(cache.get(1L, key -> "unused")).isEqualTo("load 2");
+    }
+
+    @Test
+    public void get_should_evict_entries_above_max_entries() {
+        SingleFlightCache<Long, String> cache = new SingleFlightCache<>(TTL, 10);
+
+        for (long key = 0; key < 100; key++) {
+            cache.get(key, String::valueOf);
+        }
+
+        assertThat(cache.getStats().getSize()).isLessThanOrEqualTo(11);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
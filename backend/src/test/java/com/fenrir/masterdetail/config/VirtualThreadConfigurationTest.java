@@ -0,0 +1,34 @@
+package com.fenrir.masterdetail.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadConfigurationTest {
+
+    @Test
+    public void virtualThreadFactory_should_create_named_virtual_threads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+
+        ThreadFactory factory = VirtualThreadConfiguration.virtualThreadFactory("test-vt-");
+        Thread thread = factory.newThread(() -> { });
+
+        assertThat(thread.getName())
+                .isEqualTo("test-vt-0");
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread))
+                .isEqualTo(true);
+    }
+
+    @Test
+    public void virtualThreadFactory_should_fail_before_java_21() {
+        assumeTrue(Runtime.version().feature() < 21);
+
+        assertThatThrownBy(() -> VirtualThreadConfiguration.virtualThreadFactory("test-vt-"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("requires Java 21");
+    }
+}
@@ -0,0 +1,103 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private DataSource dataSource;
+
+    @AfterEach
+    public void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    public void should_route_read_write_transactions_to_primary() {
+        setUp(ReplicaSelectionStrategy.ROUND_ROBIN, "replica-1", "replica-2");
+
+        assertThat(currentNode(false))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    public void should_route_work_outside_transactions_to_primary() {
+        setUp(ReplicaSelectionStrategy.ROUND_ROBIN, "replica-1", "replica-2");
+
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    public void should_route_read_only_transactions_to_replicas_in_turn() {
+        setUp(ReplicaSelectionStrategy.ROUND_ROBIN, "replica-1", "replica-2");
+
+        assertThat(List.of(currentNode(true), currentNode(true), currentNode(true)))
+                .containsExactly("replica-1", "replica-2", "replica-1");
+    }
+
+    @Test
+    public void should_route_read_only_transactions_to_least_busy_replica() throws SQLException {
+        setUp(ReplicaSelectionStrategy.LEAST_BUSY, "replica-1", "replica-2");
+
+        try (Connection ignored = pools.get(1).getConnection()) {
+            assertThat(currentNode(true))
+                    .isEqualTo("replica-2");
+        }
+    }
+
+    @Test
+    public void should_route_read_only_transactions_to_primary_when_no_replicas_configured() {
+        setUp(ReplicaSelectionStrategy.ROUND_ROBIN);
+
+        assertThat(currentNode(true))
+                .isEqualTo("primary");
+    }
+
+    private void setUp(ReplicaSelectionStrategy strategy, String... replicaNames) {
+        DataSource primary = createNode("primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String name : replicaNames) {
+            replicas.put(name, createNode(name));
+        }
+        dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replicas, strategy));
+    }
+
+    private HikariDataSource createNode(String name) {
+        HikariDataSource node = new HikariDataSource();
+        node.setPoolName(name);
+        node.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        node.setUsername("sa");
+        pools.add(node);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(node);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.execute("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return node;
+    }
+
+    private String currentNode(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class)
+        );
+    }
+}
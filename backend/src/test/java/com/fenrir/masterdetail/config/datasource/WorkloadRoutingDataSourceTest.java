@@ -0,0 +1,155 @@
+package com.fenrir.masterdetail.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkloadRoutingDataSourceTest {
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private WorkloadRoutingDataSource routingDataSource;
+    private DataSource dataSource;
+
+    @AfterEach
+    public void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    public void should_route_work_without_workload_to_interactive_pool() {
+        setUp(WorkloadType.INTERACTIVE, WorkloadType.BATCH, WorkloadType.ADMIN);
+
+        assertThat(currentPool()).isEqualTo("interactive");
+    }
+
+    @Test
+    public void should_route_annotated_method_to_its_pool() {
+        setUp(WorkloadType.INTERACTIVE, WorkloadType.BATCH, WorkloadType.ADMIN);
+
+        assertThat(proxy(new Jobs(this)).batchPool()).isEqualTo("batch");
+        assertThat(currentPool()).isEqualTo("interactive");
+    }
+
+    @Test
+    public void should_route_methods_of_annotated_class_to_its_pool() {
+        setUp(WorkloadType.INTERACTIVE, WorkloadType.BATCH, WorkloadType.ADMIN);
+
+        assertThat(proxy(new AdminJobs(this)).pool()).isEqualTo("admin");
+    }
+
+    @Test
+    public void should_fall_back_to_interactive_pool_when_workload_has_none() {
+        setUp(WorkloadType.INTERACTIVE);
+
+        assertThat(proxy(new Jobs(this)).batchPool()).isEqualTo("interactive");
+    }
+
+    @Test
+    public void should_keep_interactive_pool_available_while_batch_pool_is_exhausted() throws Exception {
+        setUp(WorkloadType.INTERACTIVE, WorkloadType.BATCH);
+
+        WorkloadType previous = WorkloadContext.enter(WorkloadType.BATCH);
+        try (Connection ignored = routingDataSource.getConnection()) {
+            assertThatThrownBy(() -> routingDataSource.getConnection().close())
+                    .isInstanceOf(SQLTransientConnectionException.class);
+            WorkloadContext.restore(previous);
+
+            assertThat(currentPool()).isEqualTo("interactive");
+            assertThat(routingDataSource.getStats().get(WorkloadType.BATCH).getActive()).isEqualTo(1);
+            assertThat(routingDataSource.getStats().get(WorkloadType.BATCH).getPoolName()).isEqualTo("batch");
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    @Test
+    public void should_require_interactive_pool() {
+        Map<WorkloadType, DataSource> batchOnly = Map.of(WorkloadType.BATCH, createPool(WorkloadType.BATCH));
+
+        assertThatThrownBy(() -> new WorkloadRoutingDataSource(batchOnly))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void setUp(WorkloadType... workloads) {
+        Map<WorkloadType, DataSource> workloadPools = new EnumMap<>(WorkloadType.class);
+        for (WorkloadType workload : workloads) {
+            workloadPools.put(workload, createPool(workload));
+        }
+        routingDataSource = new WorkloadRoutingDataSource(workloadPools);
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private HikariDataSource createPool(WorkloadType workload) {
+        String name = workload.name().toLowerCase();
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:workload-" + name + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(1);
+        pool.setConnectionTimeout(250);
+        pools.add(pool);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS pool (name VARCHAR(20))");
+        jdbcTemplate.execute("DELETE FROM pool");
+        jdbcTemplate.update("INSERT INTO pool (name) VALUES (?)", name);
+        return pool;
+    }
+
+    private String currentPool() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM pool", String.class)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WorkloadAspect());
+        return (T) factory.getProxy();
+    }
+
+    static class Jobs {
+        private final WorkloadRoutingDataSourceTest test;
+
+        Jobs(WorkloadRoutingDataSourceTest test) {
+            this.test = test;
+        }
+
+        @Workload(WorkloadType.BATCH)
+        public String batchPool() {
+            return test.currentPool();
+        }
+    }
+
+    @Workload(WorkloadType.ADMIN)
+    static class AdminJobs {
+        private final WorkloadRoutingDataSourceTest test;
+
+        AdminJobs(WorkloadRoutingDataSourceTest test) {
+            this.test = test;
+        }
+
+        public String pool() {
+            return test.currentPool();
+        }
+    }
+}
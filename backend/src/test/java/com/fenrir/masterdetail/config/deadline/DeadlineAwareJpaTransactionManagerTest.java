@@ -0,0 +1,85 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import com.fenrir.masterdetail.exception.DeadlineExceededException;
+import com.fenrir.masterdetail.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class DeadlineAwareJpaTransactionManagerTest {
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+    private static final long SEED_BOOK_ID = 1;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.restore(null);
+    }
+
+    @Test
+    public void should_apply_remaining_time_to_queries() {
+        DeadlineContext.enter(Deadline.after(Duration.ofMillis(2500)));
+
+        Object timeout = new TransactionTemplate(transactionManager).execute(status ->
+                entityManager.createQuery("SELECT b.id FROM Book b").getHints().get(QUERY_TIMEOUT_HINT));
+
+        assertThat(timeout).isInstanceOf(Integer.class);
+        assertThat((Integer) timeout).isBetween(1, 3000);
+    }
+
+    @Test
+    public void should_not_limit_queries_without_deadline() {
+        Object timeout = new TransactionTemplate(transactionManager).execute(status ->
+                entityManager.createQuery("SELECT b.id FROM Book b").getHints().get(QUERY_TIMEOUT_HINT));
+
+        assertThat(timeout).isNull();
+    }
+
+    @Test
+    public void should_not_start_transaction_after_deadline() {
+        DeadlineContext.enter(Deadline.after(Duration.ZERO));
+
+        assertThatThrownBy(() -> bookService.get(SEED_BOOK_ID))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    public void should_respond_with_gateway_timeout_after_deadline() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        DeadlineContext.enter(Deadline.after(Duration.ZERO));
+
+        mockMvc.perform(get("/api/books/{id}", SEED_BOOK_ID))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.statusCode").value(504))
+                .andExpect(jsonPath("$.message").isNotEmpty());
+    }
+}
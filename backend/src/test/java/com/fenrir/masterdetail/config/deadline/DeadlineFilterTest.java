@@ -0,0 +1,83 @@
+package com.fenrir.masterdetail.config.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineFilterTest {
+    private static final String HEADER = "X-Request-Timeout";
+
+    private final DeadlineFilter filter = new DeadlineFilter(
+            HEADER,
+            Duration.ofSeconds(10),
+            Map.of("/api/books/import", Duration.ofMinutes(10), "/api/books/export", Duration.ZERO)
+    );
+
+    @Test
+    public void should_use_default_timeout() {
+        assertThat(filter.determineTimeout(request("/api/books/1", null)))
+                .isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void should_use_endpoint_timeout() {
+        assertThat(filter.determineTimeout(request("/api/books/import", null)))
+                .isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    public void should_let_client_shorten_timeout() {
+        assertThat(filter.determineTimeout(request("/api/books/1", "250")))
+                .isEqualTo(Duration.ofMillis(250));
+    }
+
+    @Test
+    public void should_not_let_client_extend_timeout() {
+        assertThat(filter.determineTimeout(request("/api/books/1", "60000")))
+                .isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void should_ignore_malformed_header() {
+        assertThat(filter.determineTimeout(request("/api/books/1", "soon")))
+                .isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void should_set_deadline_for_the_request_only() throws Exception {
+        List<Optional<Deadline>> seen = new ArrayList<>();
+
+        filter.doFilter(request("/api/books/1", "500"), new MockHttpServletResponse(),
+                (req, res) -> seen.add(DeadlineContext.current()));
+
+        assertThat(seen).hasSize(1);
+        assertThat(seen.get(0)).map(Deadline::getTimeout).contains(Duration.ofMillis(500));
+        assertThat(DeadlineContext.current()).isEmpty();
+    }
+
+    @Test
+    public void should_not_set_deadline_for_endpoint_without_timeout() throws Exception {
+        List<Optional<Deadline>> seen = new ArrayList<>();
+
+        filter.doFilter(request("/api/books/export", null), new MockHttpServletResponse(),
+                (req, res) -> seen.add(DeadlineContext.current()));
+
+        assertThat(seen.get(0)).isEmpty();
+    }
+
+    private MockHttpServletRequest request(String uri, String timeout) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (timeout != null) {
+            request.addHeader(HEADER, timeout);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,105 @@
+package com.fenrir.masterdetail.config.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AimdLimiterTest {
+
+    @Test
+    public void tryAcquire_should_reject_above_limit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, Duration.ofSeconds(1));
+
+        Optional<AimdLimiter.Permit> first = limiter.tryAcquire();
+        Optional<AimdLimiter.Permit> second = limiter.tryAcquire();
+        Optional<AimdLimiter.Permit> third = limiter.tryAcquire();
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(third).isEmpty();
+        assertThat(limiter.getStats().getInFlight()).isEqualTo(2);
+        assertThat(limiter.getStats().getRejected()).isEqualTo(1);
+        assertThat(limiter.getStats().getRejectRate()).isGreaterThan(0.0);
+    }
+
+    @Test
+    public void release_should_raise_limit_when_busy_and_fast() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, Duration.ofSeconds(1));
+
+        AimdLimiter.Permit first = limiter.tryAcquire().orElseThrow();
+        AimdLimiter.Permit second = limiter.tryAcquire().orElseThrow();
+        first.release();
+        second.release();
+
+        assertThat(limiter.getStats().getLimit()).isEqualTo(3);
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    public void release_should_not_raise_limit_when_mostly_idle() {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 100, 0.5, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire().orElseThrow().release();
+        }
+
+        assertThat(limiter.getStats().getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void release_should_back_off_when_latency_exceeds_threshold() throws InterruptedException {
+        AimdLimiter limiter = new AimdLimiter(10, 4, 100, 0.5, Duration.ofMillis(1));
+
+        AimdLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+        Thread.sleep(5);
+        permit.release();
+        assertThat(limiter.getStats().getLimit()).isEqualTo(5);
+
+        permit = limiter.tryAcquire().orElseThrow();
+        Thread.sleep(5);
+        permit.release();
+        assertThat(limiter.getStats().getLimit()).isEqualTo(4);
+        assertThat(limiter.getStats().getBackoffs()).isEqualTo(2);
+    }
+
+    @Test
+    public void release_should_free_slot_only_once() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 2, 0.5, Duration.ofSeconds(1));
+        List<AimdLimiter.Permit> permits = new ArrayList<>();
+        permits.add(limiter.tryAcquire().orElseThrow());
+        permits.add(limiter.tryAcquire().orElseThrow());
+
+        AimdLimiter.Permit permit = permits.get(0);
+        permit.release();
+        permit.release();
+        permit.ignore();
+
+        assertThat(limiter.getStats().getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignore_should_free_slot_without_changing_limit() throws InterruptedException {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 100, 0.5, Duration.ofMillis(1));
+
+        AimdLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+        Thread.sleep(5);
+        permit.ignore();
+
+        assertThat(limiter.getStats().getLimit()).isEqualTo(10);
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    public void constructor_should_reject_invalid_bounds() {
+        assertThatThrownBy(() -> new AimdLimiter(1, 5, 2, 0.5, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AimdLimiter(1, 1, 2, 1.5, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.fenrir.masterdetail.config.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fenrir.masterdetail.security.jwt.JwtUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+    private AimdLimiter publicReadLimiter;
+    private AimdLimiter writeLimiter;
+    private ConcurrencyLimitFilter filter;
+    private final JwtUtils jwtUtils = new JwtUtils();
+
+    @BeforeEach
+    public void setUp() {
+        publicReadLimiter = new AimdLimiter(1, 1, 1, 0.5, Duration.ofSeconds(10));
+        writeLimiter = new AimdLimiter(1, 1, 1, 0.5, Duration.ofSeconds(10));
+        filter = new ConcurrencyLimitFilter(
+                Map.of(
+                        EndpointClass.AUTH, new AimdLimiter(1, 1, 1, 0.5, Duration.ofSeconds(10)),
+                        EndpointClass.PUBLIC_READ, publicReadLimiter,
+                        EndpointClass.WRITE, writeLimiter
+                ),
+                Duration.ofSeconds(3),
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                jwtUtils
+        );
+    }
+
+    @Test
+    public void should_reject_request_above_limit_with_retry_after() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        MockHttpServletResponse accepted = perform("GET", "/api/books/1", (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/books/2"), rejected, (req, res) -> { }));
+
+        assertThat(accepted.getStatus()).isEqualTo(200);
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(rejected.getContentAsString()).contains("\"statusCode\":503");
+        assertThat(publicReadLimiter.getStats().getRejected()).isEqualTo(1);
+        assertThat(publicReadLimiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    public void should_limit_endpoint_classes_separately() throws Exception {
+        MockHttpServletResponse write = new MockHttpServletResponse();
+
+        perform("GET", "/api/books/1", (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("POST", "/api/books"), write, (req, res) -> { }));
+
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(writeLimiter.getStats().getAccepted()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_let_admin_bypass_limit() throws Exception {
+        MockHttpServletResponse admin = new MockHttpServletResponse();
+
+        perform("GET", "/api/books/1", (request, response) ->
+                filter.doFilter(bearer("GET", "/api/books/2", "ROLE_ADMIN"), admin, (req, res) -> { }));
+
+        assertThat(admin.getStatus()).isEqualTo(200);
+        assertThat(publicReadLimiter.getStats().getAccepted()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_limit_user_and_invalid_tokens() throws Exception {
+        MockHttpServletResponse user = new MockHttpServletResponse();
+        MockHttpServletResponse invalid = new MockHttpServletResponse();
+        MockHttpServletRequest invalidRequest = new MockHttpServletRequest("GET", "/api/books/3");
+        invalidRequest.addHeader("Authorization", "Bearer not-a-token");
+
+        perform("GET", "/api/books/1", (request, response) -> {
+            filter.doFilter(bearer("GET", "/api/books/2", "ROLE_USER"), user, (req, res) -> { });
+            filter.doFilter(invalidRequest, invalid, (req, res) -> { });
+        });
+
+        assertThat(user.getStatus()).isEqualTo(503);
+        assertThat(invalid.getStatus()).isEqualTo(503);
+    }
+
+    @Test
+    public void should_not_limit_paths_outside_api() throws Exception {
+        MockHttpServletResponse docs = new MockHttpServletResponse();
+
+        perform("GET", "/api/books/1", (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/swagger-ui/index.html"), docs, (req, res) -> { }));
+
+        assertThat(docs.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void should_classify_requests() {
+        assertThat(EndpointClass.of("/api/auth/signin", "POST")).isEqualTo(EndpointClass.AUTH);
+        assertThat(EndpointClass.of("/api/reviews/book/1", "GET")).isEqualTo(EndpointClass.PUBLIC_READ);
+        assertThat(EndpointClass.of("/api/reviews/user123/1", "PUT")).isEqualTo(EndpointClass.WRITE);
+    }
+
+    private MockHttpServletRequest bearer(String method, String uri, String role) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        String token = jwtUtils.generateJwtToken(User.withUsername("someone").password("").authorities(role).build());
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+}
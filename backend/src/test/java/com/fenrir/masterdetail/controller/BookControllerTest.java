@@ -1,22 +1,39 @@
 package com.fenrir.masterdetail.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.model.Author;
 import com.fenrir.masterdetail.model.Book;
 import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.service.AuthorService;
+import com.fenrir.masterdetail.service.BookCounterService;
+import com.fenrir.masterdetail.service.BookSearchService;
+import com.fenrir.masterdetail.service.GenreService;
 import com.fenrir.masterdetail.setup.IntegrationTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -26,8 +43,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class BookControllerTest extends IntegrationTest {
     private static final String BOOK_CONTROLLER_ENDPOINT = "/api/books";
     private static final String GET_BY_ID_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/{id}";
+    private static final String GET_BOOK_COUNTERS_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/{id}/counters";
     private static final String UPDATE_BOOK_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/{id}";
     private static final String DELETE_BOOK_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/{id}";
+    private static final String SEARCH_BOOKS_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/search";
+    private static final String AUTHORS_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/authors";
+    private static final String SUGGEST_BOOKS_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/suggest";
+    private static final String IMPORT_BOOKS_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/import";
+    private static final String EXPORT_BOOKS_ENDPOINT = BOOK_CONTROLLER_ENDPOINT + "/export";
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -35,6 +58,24 @@ class BookControllerTest extends IntegrationTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookCounterService bookCounterService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private AuthorService authorService;
+
     private static final int INITIAL_BOOK_COUNT = 2;
 
     private static final long BOOK_1_ID = 101;
@@ -58,6 +99,60 @@ class BookControllerTest extends IntegrationTest {
                 .andExpect(jsonPath("$.createdAt").isNotEmpty());
     }
 
+    @Test
+    public void getBookCounters_should_count_views_and_flush_them() throws Exception {
+        long initialViews = bookCounterService.getCounters(BOOK_1_ID).getViewCount();
+
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT, BOOK_1_ID)).andExpect(status().isOk());
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT, BOOK_1_ID)).andExpect(status().isOk());
+        mockMvc.perform(get(GET_BOOK_COUNTERS_ENDPOINT, BOOK_1_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookId", is((int) BOOK_1_ID)))
+                .andExpect(jsonPath("$.viewCount", is((int) initialViews + 2)));
+
+        bookCounterService.flush();
+
+        Long persistedViews = jdbcTemplate.queryForObject(
+                "SELECT value FROM book_counter WHERE book_id = ? AND name = 'VIEWS'", Long.class, BOOK_1_ID);
+        assertThat(persistedViews).isEqualTo(initialViews + 2);
+        mockMvc.perform(get(GET_BOOK_COUNTERS_ENDPOINT, BOOK_1_ID))
+                .andExpect(jsonPath("$.viewCount", is((int) initialViews + 2)));
+    }
+
+    @Test
+    public void getBookCounters_should_count_detail_page_views() throws Exception {
+        long initialViews = bookCounterService.getCounters(BOOK_1_ID).getViewCount();
+
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT + "/detail", BOOK_1_ID)).andExpect(status().isOk());
+        mockMvc.perform(get(GET_BOOK_COUNTERS_ENDPOINT, BOOK_1_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.viewCount", is((int) initialViews + 1)));
+    }
+
+    @Test
+    public void getBookCounters_should_return_404_for_missing_book() throws Exception {
+        mockMvc.perform(get(GET_BOOK_COUNTERS_ENDPOINT, 123L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getBookDetail_should_compose_book_page() throws Exception {
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT + "/detail", BOOK_1_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.book.id", is((int) BOOK_1_ID)))
+                .andExpect(jsonPath("$.book.title", is(BOOK_1_TITLE)))
+                .andExpect(jsonPath("$.stats").exists())
+                .andExpect(jsonPath("$.reviews.content").isArray())
+                .andExpect(jsonPath("$.ownReview").doesNotExist())
+                .andExpect(jsonPath("$.unavailable").isEmpty());
+    }
+
+    @Test
+    public void getBookDetail_should_return_404_for_missing_book() throws Exception {
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT + "/detail", 999))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void getAllBooks_should_return_book_page() throws Exception {
         mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?sort=id,asc"))
@@ -67,25 +162,93 @@ class BookControllerTest extends IntegrationTest {
                 .andExpect(jsonPath("$.content[0].id", is((int) BOOK_1_ID)))
                 .andExpect(jsonPath("$.content[0].title", is(BOOK_1_TITLE)))
                 .andExpect(jsonPath("$.content[0].author", is(BOOK_1_AUTHOR)))
-                .andExpect(jsonPath("$.content[0].description").isNotEmpty())
+                .andExpect(jsonPath("$.content[0].description").isEmpty())
                 .andExpect(jsonPath("$.content[0].cover").isNotEmpty())
                 .andExpect(jsonPath("$.content[0].updatedAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[0].createdAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[1].id", is((int) BOOK_2_ID)))
                 .andExpect(jsonPath("$.content[1].title", is(BOOK_2_TITLE)))
                 .andExpect(jsonPath("$.content[1].author", is(BOOK_2_AUTHOR)))
-                .andExpect(jsonPath("$.content[1].description").isNotEmpty())
+                .andExpect(jsonPath("$.content[1].description").isEmpty())
                 .andExpect(jsonPath("$.content[1].cover").isNotEmpty())
                 .andExpect(jsonPath("$.content[1].updatedAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[1].createdAt").isNotEmpty());
     }
 
+    @Test
+    public void getAllBooks_should_return_books_of_given_genre() throws Exception {
+        genreService.rebuild();
+
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?genre=fantasy&sort=title,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is((int) BOOK_1_ID)))
+                .andExpect(jsonPath("$.content[0].title", is(BOOK_1_TITLE)));
+    }
+
+    @Test
+    public void getAllBooks_should_return_empty_page_when_no_book_has_all_genres() throws Exception {
+        genreService.rebuild();
+
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?genre=fantasy&genre=science-fiction&genreMatch=all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(0)))
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    public void getAllBooks_should_filter_by_genre_and_author() throws Exception {
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?genre=Fantasy&genre=science-fiction")
+                        .param("author", BOOK_1_AUTHOR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is((int) BOOK_1_ID)));
+
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?genre=fantasy").param("author", BOOK_2_AUTHOR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+
+    @Test
+    public void getAllBooks_should_filter_by_genre_when_sorting_outside_the_index() throws Exception {
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?genre=fantasy&sort=createdAt,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is((int) BOOK_1_ID)));
+
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT + "?genre=fantasy&genre=science-fiction&genreMatch=all&sort=createdAt"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+
+    @Test
+    public void getAllBooks_should_return_books_of_given_author() throws Exception {
+        mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT).param("author", BOOK_2_AUTHOR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is((int) BOOK_2_ID)))
+                .andExpect(jsonPath("$.content[0].author", is(BOOK_2_AUTHOR)));
+    }
+
+    @Test
+    public void getAllAuthors_should_return_authors_with_book_counts() throws Exception {
+        authorService.rebuild();
+
+        mockMvc.perform(get(AUTHORS_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(2)))
+                .andExpect(jsonPath("$.content[0].author", is(BOOK_1_AUTHOR)))
+                .andExpect(jsonPath("$.content[0].bookCount", is(1)))
+                .andExpect(jsonPath("$.content[1].author", is(BOOK_2_AUTHOR)))
+                .andExpect(jsonPath("$.content[1].bookCount", is(1)));
+    }
+
     @Test
     @WithMockUser(value = "user", roles = "USER")
     public void postBook_should_create_new_book() throws Exception {
         Book book = Book.builder()
                 .title("New book")
-                .author("Author")
+                .author(new Author("Author"))
                 .cover("cover link")
                 .build();
 
@@ -95,7 +258,7 @@ class BookControllerTest extends IntegrationTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").isNotEmpty())
                 .andExpect(jsonPath("$.title", is(book.getTitle())))
-                .andExpect(jsonPath("$.author", is(book.getAuthor())))
+                .andExpect(jsonPath("$.author", is(book.getAuthorName())))
                 .andExpect(jsonPath("$.description").isEmpty())
                 .andExpect(jsonPath("$.cover", is(book.getCover())))
                 .andExpect(jsonPath("$.updatedAt").isNotEmpty())
@@ -106,11 +269,38 @@ class BookControllerTest extends IntegrationTest {
                 .isEqualTo(INITIAL_BOOK_COUNT + 1);
     }
 
+    @Test
+    @WithMockUser(value = "user", roles = "USER")
+    public void postBook_should_store_long_description_compressed() throws Exception {
+        Book book = Book.builder()
+                .title("New book")
+                .author(new Author("Author"))
+                .description("A long description that repeats itself. ".repeat(50))
+                .build();
+
+        MvcResult result = mockMvc.perform(post(BOOK_CONTROLLER_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+        entityManager.flush();
+        entityManager.clear();
+
+        byte[] stored = jdbcTemplate.queryForObject(
+                "SELECT description FROM book_description WHERE book_id = ?", byte[].class, id);
+        assertThat(stored.length)
+                .isLessThan(book.getDescription().length() / 4);
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT, id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description", is(book.getDescription())));
+    }
+
     @Test
     public void postBook_should_fail_for_anonymous_user() throws Exception {
         Book book = Book.builder()
                 .title("New book")
-                .author("Author")
+                .author(new Author("Author"))
                 .cover("cover link")
                 .build();
 
@@ -124,12 +314,209 @@ class BookControllerTest extends IntegrationTest {
                 .isEqualTo(INITIAL_BOOK_COUNT);
     }
 
+    @Test
+    public void searchBooks_should_return_books_ordered_by_relevance() throws Exception {
+        bookSearchService.rebuild();
+
+        mockMvc.perform(get(SEARCH_BOOKS_ENDPOINT)
+                        .param("q", "corey war"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].title", is("Calibans War")));
+    }
+
+    @Test
+    public void searchBooks_should_tolerate_typos_in_fuzzy_mode() throws Exception {
+        bookSearchService.rebuild();
+
+        mockMvc.perform(get(SEARCH_BOOKS_ENDPOINT)
+                        .param("q", "calibns")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].title", is("Calibans War")));
+    }
+
+    @Test
+    public void searchBooks_should_return_empty_list_when_nothing_matches() throws Exception {
+        mockMvc.perform(get(SEARCH_BOOKS_ENDPOINT)
+                        .param("q", "nonexistentword"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(0)));
+    }
+
+    @Test
+    public void suggestBooks_should_return_titles_and_authors_matching_prefix() throws Exception {
+        bookSearchService.rebuild();
+
+        mockMvc.perform(get(SUGGEST_BOOKS_ENDPOINT)
+                        .param("prefix", "cor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].text", is("James S.A. Corey")))
+                .andExpect(jsonPath("$[0].type", is("AUTHOR")));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void importBooks_should_insert_valid_csv_rows_and_report_rejected_ones() throws Exception {
+        String csv = """
+                title,author,description,cover
+                "Leviathan Wakes","James S.A. Corey","Quoted, with a comma
+                and a line break",cover link
+                ,Missing Title,,
+                Dune,Frank Herbert,,
+                """;
+
+        mockMvc.perform(post(IMPORT_BOOKS_ENDPOINT)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.rejections[0].line", is(4)))
+                .andExpect(jsonPath("$.rejections[0].reason").isNotEmpty());
+
+        int size = bookRepository.findAll().size();
+        assertThat(size)
+                .isEqualTo(INITIAL_BOOK_COUNT + 2);
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void importBooks_should_insert_valid_ndjson_rows_and_report_rejected_ones() throws Exception {
+        String ndjson = """
+                {"title": "Dune", "author": "Frank Herbert", "cover": "cover link"}
+                {"title": "Broken",
+                {"title": "Anonymous"}
+                """;
+
+        mockMvc.perform(post(IMPORT_BOOKS_ENDPOINT)
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.rejections[0].line", is(2)))
+                .andExpect(jsonPath("$.rejections[1].line", is(3)));
+
+        int size = bookRepository.findAll().size();
+        assertThat(size)
+                .isEqualTo(INITIAL_BOOK_COUNT + 1);
+    }
+
+    @Test
+    @WithMockUser(value = "user", roles = "USER")
+    public void importBooks_should_fail_for_ordinary_user() throws Exception {
+        mockMvc.perform(post(IMPORT_BOOKS_ENDPOINT)
+                        .contentType("text/csv")
+                        .content("title,author\nDune,Frank Herbert\n"))
+                .andExpect(status().isForbidden());
+
+        int size = bookRepository.findAll().size();
+        assertThat(size)
+                .isEqualTo(INITIAL_BOOK_COUNT);
+    }
+
+    @Test
+    public void streamAllBooks_should_stream_books_as_ndjson() throws Exception {
+        MvcResult result = mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT).accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(startsWith("{\"id\":")));
+    }
+
+    @Test
+    public void streamAllBooks_should_stream_every_book_across_pages() throws Exception {
+        // Streaming runs outside the test transaction, so it reads the seeded books, three per page
+        MvcResult result = mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT).accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            ids.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertThat(ids).isSorted().doesNotHaveDuplicates().hasSizeGreaterThan(3);
+    }
+
+    @Test
+    public void streamAllBooks_should_resume_after_given_id() throws Exception {
+        MvcResult result = mockMvc.perform(get(BOOK_CONTROLLER_ENDPOINT)
+                        .accept("application/x-ndjson")
+                        .param("afterId", String.valueOf(Long.MAX_VALUE)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void exportBooks_should_stream_books_as_ndjson() throws Exception {
+        MvcResult result = mockMvc.perform(get(EXPORT_BOOKS_ENDPOINT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(startsWith("{\"id\":")));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void exportBooks_should_stream_books_as_csv_with_header() throws Exception {
+        MvcResult result = mockMvc.perform(get(EXPORT_BOOKS_ENDPOINT).param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(startsWith("id,title,author,description,cover,createdAt,updatedAt\r\n")));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void exportBooks_should_skip_books_not_updated_since_given_time() throws Exception {
+        MvcResult result = mockMvc.perform(get(EXPORT_BOOKS_ENDPOINT).param("updatedSince", "2100-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void exportBooks_should_fail_when_given_unsupported_format() throws Exception {
+        mockMvc.perform(get(EXPORT_BOOKS_ENDPOINT).param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportBooks_should_fail_for_anonymous_user() throws Exception {
+        mockMvc.perform(get(EXPORT_BOOKS_ENDPOINT))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser(value = "admin", roles = "ADMIN")
     public void updateBook_should_update_existing_book() throws Exception {
         Book book = Book.builder()
                 .title("New book")
-                .author("Author")
+                .author(new Author("Author"))
                 .cover("cover link")
                 .build();
 
@@ -139,19 +526,63 @@ class BookControllerTest extends IntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is((int) BOOK_1_ID)))
                 .andExpect(jsonPath("$.title", is(book.getTitle())))
-                .andExpect(jsonPath("$.author", is(book.getAuthor())))
+                .andExpect(jsonPath("$.author", is(book.getAuthorName())))
                 .andExpect(jsonPath("$.description").isEmpty())
                 .andExpect(jsonPath("$.cover", is(book.getCover())))
                 .andExpect(jsonPath("$.updatedAt").isNotEmpty())
                 .andExpect(jsonPath("$.createdAt").isNotEmpty());
     }
 
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void updateBook_should_apply_when_if_match_has_current_version() throws Exception {
+        Book book = Book.builder()
+                .title("New book")
+                .author(new Author("Author"))
+                .build();
+
+        mockMvc.perform(get(GET_BY_ID_ENDPOINT, BOOK_1_ID))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        mockMvc.perform(put(UPDATE_BOOK_ENDPOINT, BOOK_1_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.title", is(book.getTitle())));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void updateBook_should_fail_when_if_match_has_stale_version() throws Exception {
+        Book book = Book.builder()
+                .title("New book")
+                .author(new Author("Author"))
+                .build();
+
+        mockMvc.perform(put(UPDATE_BOOK_ENDPOINT, BOOK_1_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(UPDATE_BOOK_ENDPOINT, BOOK_1_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.statusCode", is(412)));
+        mockMvc.perform(put(UPDATE_BOOK_ENDPOINT, BOOK_1_ID)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @WithMockUser(value = "user", roles = "USER")
     public void updateBook_should_fail_for_ordinary_user() throws Exception {
         Book book = Book.builder()
                 .title("New book")
-                .author("Author")
+                .author(new Author("Author"))
                 .cover("cover link")
                 .build();
 
@@ -166,7 +597,7 @@ class BookControllerTest extends IntegrationTest {
     public void updateBook_should_fail_when_given_wrong_id() throws Exception {
         Book book = Book.builder()
                 .title("New book")
-                .author("Author")
+                .author(new Author("Author"))
                 .cover("cover link")
                 .build();
 
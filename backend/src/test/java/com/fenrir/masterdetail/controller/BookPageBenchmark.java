@@ -0,0 +1,107 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+import com.fenrir.masterdetail.io.CsvRecordReader;
+import com.fenrir.masterdetail.service.BookImportService;
+import com.fenrir.masterdetail.setup.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.StringReader;
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports a synthetic catalog with long descriptions and reports the stored width of a {@code book} row and
+ * the latency of listing pages. Not part of the regular test run, use {@code mvn test -Pbenchmark}.
+ */
+class BookPageBenchmark extends IntegrationTest {
+    private static final int BOOKS = 20_000;
+    private static final int DESCRIPTION_LENGTH = 1_500;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final int REQUESTS = 1_000;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void list_book_pages() throws Exception {
+        ImportSummaryDTO summary = bookImportService.importBooks(new CsvRecordReader(new StringReader(catalog())));
+        assertThat(summary.getAccepted())
+                .isEqualTo(BOOKS);
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            requestPage();
+        }
+        long[] latencies = new long[REQUESTS];
+        long responseBytes = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            long startedAt = System.nanoTime();
+            responseBytes += requestPage();
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Book row: ~%d bytes stored in book, ~%d bytes of JSON per listed book%n",
+                averageBookRowWidth(), responseBytes / ((long) REQUESTS * PAGE_SIZE));
+        System.out.printf("Book pages: p50=%.2f ms, p99=%.2f ms, max=%.2f ms%n",
+                latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6, latencies[REQUESTS - 1] / 1e6);
+    }
+
+    private int requestPage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/books")
+                        .param("page", String.valueOf(random.nextInt(BOOKS / PAGE_SIZE)))
+                        .param("size", String.valueOf(PAGE_SIZE)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return result.getResponse().getContentAsByteArray().length;
+    }
+
+    private long averageBookRowWidth() {
+        long[] totals = new long[2];
+        jdbcTemplate.query("SELECT * FROM book", resultSet -> {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            long width = 0;
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                String value = resultSet.getString(column);
+                width += value != null ? value.length() : 0;
+            }
+            totals[0] += width;
+            totals[1]++;
+        });
+        return totals[0] / totals[1];
+    }
+
+    private String catalog() {
+        StringBuilder csv = new StringBuilder("title,author,description,cover\n");
+        for (int i = 0; i < BOOKS; i++) {
+            csv.append("Book ").append(i).append(",Author ").append(i % 500).append(',')
+                    .append(text(DESCRIPTION_LENGTH)).append(",https://covers.example.com/").append(i).append(".jpg\n");
+        }
+        return csv.toString();
+    }
+
+    private String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append((char) ('a' + random.nextInt(26)));
+            if (random.nextInt(7) == 0) {
+                text.append(' ');
+            }
+        }
+        return text.substring(0, length);
+    }
+}
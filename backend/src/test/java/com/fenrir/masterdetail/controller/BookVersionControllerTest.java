@@ -0,0 +1,104 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.model.Author;
+import com.fenrir.masterdetail.model.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional, so each request commits and the version is the one a client sees next.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookVersionControllerTest {
+    private static final String BOOKS = "/api/books";
+    private static final String BOOK = BOOKS + "/{id}";
+    private static final String AUTHOR = "James S.A. Corey";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Long bookId;
+
+    @BeforeEach
+    public void setup() {
+        this.mockMvc = MockMvcBuilders
+                .webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (bookId != null) {
+            mockMvc.perform(delete(BOOK, bookId))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void updateBook_should_raise_committed_version_by_one_per_put() throws Exception {
+        Book book = new Book("Versioned", AUTHOR, "First", null);
+        String created = mockMvc.perform(post(BOOKS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        bookId = objectMapper.readTree(created).get("id").asLong();
+        assertThat(committedVersion()).isZero();
+
+        book.setTitle("Versioned again");
+        update(book, "\"0\"", "\"1\"");
+        assertThat(committedVersion()).isEqualTo(1);
+
+        book.setDescription("Second");
+        update(book, "\"1\"", "\"2\"");
+        assertThat(committedVersion()).isEqualTo(2);
+
+        book.setTitle("Versioned once more");
+        book.setAuthor(new Author("George R.R. Martin"));
+        update(book, "\"2\"", "\"3\"");
+        assertThat(committedVersion()).isEqualTo(3);
+    }
+
+    private void update(Book book, String ifMatch, String expectedETag) throws Exception {
+        mockMvc.perform(put(BOOK, bookId)
+                        .header(HttpHeaders.IF_MATCH, ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, expectedETag));
+    }
+
+    private Long committedVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM book WHERE id = ?", Long.class, bookId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.setup.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CacheControllerTest extends IntegrationTest {
+    private static final String CACHE_CONTROLLER_ENDPOINT = "/api/caches";
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void getCacheStats_should_return_stats_of_each_cache() throws Exception {
+        mockMvc.perform(get("/api/books/{id}", 1))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(CACHE_CONTROLLER_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.loads").isNumber())
+                .andExpect(jsonPath("$.books.coalesced").isNumber())
+                .andExpect(jsonPath("$.bookStatistics.earlyRefreshes").isNumber());
+    }
+
+    @Test
+    @WithMockUser(value = "user", roles = "USER")
+    public void getCacheStats_should_fail_for_non_admin() throws Exception {
+        mockMvc.perform(get(CACHE_CONTROLLER_ENDPOINT))
+                .andExpect(status().isForbidden());
+    }
+}
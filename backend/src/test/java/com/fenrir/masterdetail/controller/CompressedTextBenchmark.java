@@ -0,0 +1,111 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+import com.fenrir.masterdetail.io.CsvRecordReader;
+import com.fenrir.masterdetail.model.converter.CompressedText;
+import com.fenrir.masterdetail.service.BookImportService;
+import com.fenrir.masterdetail.setup.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports books with prose-like descriptions and reports the bytes saved by compressed storage against the
+ * time spent encoding and decoding, along with book detail latency. Use {@code mvn test -Pbenchmark}.
+ */
+class CompressedTextBenchmark extends IntegrationTest {
+    private static final int BOOKS = 5_000;
+    private static final int DESCRIPTION_LENGTH = 1_500;
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int REQUESTS = 2_000;
+    private static final String[] WORDS = {
+            "the", "a", "of", "and", "to", "in", "his", "her", "world", "story", "young", "family", "war", "love",
+            "city", "secret", "journey", "life", "novel", "years", "after", "through", "finds", "must", "old",
+            "village", "king", "daughter", "friend", "dark", "history", "between", "against", "power", "truth"
+    };
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void compress_descriptions() throws Exception {
+        ImportSummaryDTO summary = bookImportService.importBooks(new CsvRecordReader(new StringReader(catalog())));
+        assertThat(summary.getAccepted())
+                .isEqualTo(BOOKS);
+
+        List<byte[]> stored = jdbcTemplate.queryForList("SELECT description FROM book_description", byte[].class);
+        long storedBytes = 0;
+        long rawBytes = 0;
+        long decodeNanos = 0;
+        for (byte[] value : stored) {
+            long startedAt = System.nanoTime();
+            String text = CompressedText.decode(value);
+            decodeNanos += System.nanoTime() - startedAt;
+            storedBytes += value.length;
+            rawBytes += text.getBytes(StandardCharsets.UTF_8).length;
+        }
+        long encodeNanos = 0;
+        for (byte[] value : stored) {
+            String text = CompressedText.decode(value);
+            long startedAt = System.nanoTime();
+            CompressedText.encode(text);
+            encodeNanos += System.nanoTime() - startedAt;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM book", Long.class);
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            requestBook(ids);
+        }
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long startedAt = System.nanoTime();
+            requestBook(ids);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Descriptions: %d bytes raw, %d bytes stored (%.1f%%)%n",
+                rawBytes, storedBytes, 100.0 * storedBytes / rawBytes);
+        System.out.printf("Per description: encode %.1f us, decode %.1f us%n",
+                encodeNanos / 1e3 / stored.size(), decodeNanos / 1e3 / stored.size());
+        System.out.printf("Book detail: p50=%.2f ms, p99=%.2f ms%n",
+                latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6);
+    }
+
+    private void requestBook(List<Long> ids) throws Exception {
+        mockMvc.perform(get("/api/books/{id}", ids.get(random.nextInt(ids.size()))))
+                .andExpect(status().isOk());
+    }
+
+    private String catalog() {
+        StringBuilder csv = new StringBuilder("title,author,description,cover\n");
+        for (int i = 0; i < BOOKS; i++) {
+            csv.append("Book ").append(i).append(",Author ").append(i % 500).append(',')
+                    .append(prose(DESCRIPTION_LENGTH)).append(",https://covers.example.com/").append(i).append(".jpg\n");
+        }
+        return csv.toString();
+    }
+
+    private String prose(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.substring(0, length).trim();
+    }
+}
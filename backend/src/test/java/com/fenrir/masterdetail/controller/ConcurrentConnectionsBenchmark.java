@@ -0,0 +1,112 @@
+package com.fenrir.masterdetail.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keeps 5k connections busy reading book details from a running server and reports throughput and latency.
+ * Run with {@code mvn test -Pbenchmark} for platform threads and add {@code -Pvirtual-threads} on Java 21 to
+ * compare. Only the platform thread run has been measured so far, the virtual thread side of the comparison
+ * still needs a Java 21 JDK and has not been recorded.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConcurrentConnectionsBenchmark {
+    private static final int CONNECTIONS = 5_000;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration DURATION = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${bookly.threads.virtual}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void read_books_over_concurrent_connections() throws Exception {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM book", Long.class);
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        try {
+            run(client, ids, WARMUP);
+            Run run = run(client, ids, DURATION);
+
+            assertThat(run.failures.get())
+                    .isZero();
+            long[] latencies = run.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%s threads, %d connections: %.0f requests/s, p50=%.1f ms, p99=%.1f ms%n",
+                    virtualThreads ? "Virtual" : "Platform", CONNECTIONS,
+                    latencies.length / (double) DURATION.toSeconds(),
+                    latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6);
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private Run run(HttpClient client, List<Long> ids, Duration duration) {
+        Run run = new Run(System.nanoTime() + duration.toNanos());
+        CompletableFuture<?>[] connections = new CompletableFuture<?>[CONNECTIONS];
+        for (int i = 0; i < CONNECTIONS; i++) {
+            connections[i] = request(client, ids, new Random(i), run);
+        }
+        CompletableFuture.allOf(connections).join();
+        return run;
+    }
+
+    private CompletableFuture<Void> request(HttpClient client, List<Long> ids, Random random, Run run) {
+        if (System.nanoTime() > run.deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/api/books/" + ids.get(random.nextInt(ids.size()))))
+                .timeout(Duration.ofMinutes(1))
+                .build();
+        long startedAt = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null || response.statusCode() != 200) {
+                        run.failures.incrementAndGet();
+                    } else {
+                        run.latencies.add(System.nanoTime() - startedAt);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> request(client, ids, random, run));
+    }
+
+    private static class Run {
+        private final long deadline;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong failures = new AtomicLong();
+
+        Run(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
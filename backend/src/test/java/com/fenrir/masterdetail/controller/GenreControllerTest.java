@@ -0,0 +1,157 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.model.Genre;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.repository.GenreRepository;
+import com.fenrir.masterdetail.setup.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(value = {
+        "classpath:db/GenreControllerTest.sql"
+})
+class GenreControllerTest extends IntegrationTest {
+    private static final String GENRE_CONTROLLER_ENDPOINT = "/api/genres";
+    private static final String DELETE_GENRE_ENDPOINT = GENRE_CONTROLLER_ENDPOINT + "/{id}";
+    private static final String GENRE_BOOK_ENDPOINT = GENRE_CONTROLLER_ENDPOINT + "/{id}/books/{bookId}";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private static final int INITIAL_GENRE_COUNT = 2;
+
+    private static final long GENRE_1_ID = 101;
+    private static final String GENRE_1_NAME = "fantasy";
+
+    private static final long GENRE_2_ID = 102;
+    private static final String GENRE_2_NAME = "science-fiction";
+
+    private static final long BOOK_ID = 101;
+
+    @Test
+    public void getAllGenres_should_return_genres_ordered_by_name() throws Exception {
+        mockMvc.perform(get(GENRE_CONTROLLER_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(INITIAL_GENRE_COUNT)))
+                .andExpect(jsonPath("$[0].id", is((int) GENRE_1_ID)))
+                .andExpect(jsonPath("$[0].name", is(GENRE_1_NAME)))
+                .andExpect(jsonPath("$[1].id", is((int) GENRE_2_ID)))
+                .andExpect(jsonPath("$[1].name", is(GENRE_2_NAME)));
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void postGenre_should_create_new_genre() throws Exception {
+        Genre genre = Genre.builder()
+                .name("horror")
+                .build();
+
+        mockMvc.perform(post(GENRE_CONTROLLER_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(genre)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNotEmpty())
+                .andExpect(jsonPath("$.name", is(genre.getName())));
+
+        assertThat(genreRepository.count())
+                .isEqualTo(INITIAL_GENRE_COUNT + 1);
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void postGenre_should_fail_when_name_already_exists() throws Exception {
+        Genre genre = Genre.builder()
+                .name(GENRE_1_NAME)
+                .build();
+
+        mockMvc.perform(post(GENRE_CONTROLLER_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(genre)))
+                .andExpect(status().isConflict());
+
+        assertThat(genreRepository.count())
+                .isEqualTo(INITIAL_GENRE_COUNT);
+    }
+
+    @Test
+    @WithMockUser(value = "user", roles = "USER")
+    public void postGenre_should_fail_for_ordinary_user() throws Exception {
+        Genre genre = Genre.builder()
+                .name("horror")
+                .build();
+
+        mockMvc.perform(post(GENRE_CONTROLLER_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(genre)))
+                .andExpect(status().isForbidden());
+
+        assertThat(genreRepository.count())
+                .isEqualTo(INITIAL_GENRE_COUNT);
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void assignGenre_should_add_genre_to_book() throws Exception {
+        mockMvc.perform(put(GENRE_BOOK_ENDPOINT, GENRE_2_ID, BOOK_ID))
+                .andExpect(status().isNoContent());
+
+        assertThat(bookRepository.findById(BOOK_ID).orElseThrow().getGenres())
+                .extracting(Genre::getName)
+                .containsExactlyInAnyOrder(GENRE_1_NAME, GENRE_2_NAME);
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void unassignGenre_should_remove_genre_from_book() throws Exception {
+        mockMvc.perform(delete(GENRE_BOOK_ENDPOINT, GENRE_1_ID, BOOK_ID))
+                .andExpect(status().isNoContent());
+
+        assertThat(bookRepository.findById(BOOK_ID).orElseThrow().getGenres())
+                .isEmpty();
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void assignGenre_should_fail_when_given_wrong_book_id() throws Exception {
+        mockMvc.perform(put(GENRE_BOOK_ENDPOINT, GENRE_1_ID, 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void deleteGenreById_should_delete_genre() throws Exception {
+        mockMvc.perform(delete(DELETE_GENRE_ENDPOINT, GENRE_1_ID))
+                .andExpect(status().isNoContent());
+
+        assertThat(genreRepository.count())
+                .isEqualTo(INITIAL_GENRE_COUNT - 1);
+    }
+
+    @Test
+    public void deleteGenreById_should_fail_for_anonymous_user() throws Exception {
+        mockMvc.perform(delete(DELETE_GENRE_ENDPOINT, GENRE_1_ID))
+                .andExpect(status().isUnauthorized());
+
+        assertThat(genreRepository.count())
+                .isEqualTo(INITIAL_GENRE_COUNT);
+    }
+}
@@ -0,0 +1,30 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.setup.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class LimitControllerTest extends IntegrationTest {
+    private static final String LIMIT_CONTROLLER_ENDPOINT = "/api/limits";
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void getLimitStats_should_return_stats_of_each_endpoint_class() throws Exception {
+        mockMvc.perform(get(LIMIT_CONTROLLER_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.AUTH.limit").value(20))
+                .andExpect(jsonPath("$.PUBLIC_READ.inFlight").isNumber())
+                .andExpect(jsonPath("$.WRITE.rejectRate").isNumber());
+    }
+
+    @Test
+    @WithMockUser(value = "user", roles = "USER")
+    public void getLimitStats_should_fail_for_non_admin() throws Exception {
+        mockMvc.perform(get(LIMIT_CONTROLLER_ENDPOINT))
+                .andExpect(status().isForbidden());
+    }
+}
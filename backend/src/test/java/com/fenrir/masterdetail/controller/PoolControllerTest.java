@@ -0,0 +1,30 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.setup.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PoolControllerTest extends IntegrationTest {
+    private static final String POOL_CONTROLLER_ENDPOINT = "/api/pools";
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void getPoolStats_should_return_stats_of_each_workload_pool() throws Exception {
+        mockMvc.perform(get(POOL_CONTROLLER_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.INTERACTIVE.poolName").value("interactive"))
+                .andExpect(jsonPath("$.BATCH.maximumPoolSize").value(3))
+                .andExpect(jsonPath("$.ADMIN.active").isNumber());
+    }
+
+    @Test
+    @WithMockUser(value = "user", roles = "USER")
+    public void getPoolStats_should_fail_for_non_admin() throws Exception {
+        mockMvc.perform(get(POOL_CONTROLLER_ENDPOINT))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -1,23 +1,35 @@
 package com.fenrir.masterdetail.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.dto.ReviewCursor;
 import com.fenrir.masterdetail.dto.ReviewRequestDTO;
 import com.fenrir.masterdetail.repository.ReviewRepository;
 import com.fenrir.masterdetail.setup.IntegrationTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Sql(value = {
@@ -28,10 +40,13 @@ class ReviewControllerTest extends IntegrationTest {
     private static final String GET_REVIEW_BY_USERNAME_AND_BOOK_ID = REVIEW_CONTROLLER_ENDPOINT + "/{username}/{bookId}";
     private static final String GET_REVIEW_BY_BOOK_ID = REVIEW_CONTROLLER_ENDPOINT + "/book/{bookId}";
     private static final String GET_REVIEW_BY_USERNAME = REVIEW_CONTROLLER_ENDPOINT + "/user/{username}";
+    private static final String GET_BOOK_TIMELINE = REVIEW_CONTROLLER_ENDPOINT + "/book/{bookId}/timeline";
+    private static final String GET_USER_TIMELINE = REVIEW_CONTROLLER_ENDPOINT + "/user/{username}/timeline";
     private static final String GET_BOOK_STATISTICS = REVIEW_CONTROLLER_ENDPOINT + "/book/{bookId}/stats";
     private static final String POST_REVIEW = REVIEW_CONTROLLER_ENDPOINT + "/{username}/{bookId}";
     private static final String UPDATE_REVIEW = REVIEW_CONTROLLER_ENDPOINT + "/{username}/{bookId}";
     private static final String DELETE_REVIEW = REVIEW_CONTROLLER_ENDPOINT + "/{username}/{bookId}";
+    private static final String IMPORT_REVIEWS = REVIEW_CONTROLLER_ENDPOINT + "/import";
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -60,7 +75,12 @@ class ReviewControllerTest extends IntegrationTest {
                 .andExpect(jsonPath("$.updatedAt").isNotEmpty())
                 .andExpect(jsonPath("$.createdAt").isNotEmpty())
                 .andExpect(jsonPath("$.book").isNotEmpty())
-                .andExpect(jsonPath("$.user").isNotEmpty());
+                .andExpect(jsonPath("$.book.id", is(BOOK_1_ID)))
+                .andExpect(jsonPath("$.book.title").isNotEmpty())
+                .andExpect(jsonPath("$.book.description").doesNotExist())
+                .andExpect(jsonPath("$.user").isNotEmpty())
+                .andExpect(jsonPath("$.user.username", is(USER_1_USERNAME)))
+                .andExpect(jsonPath("$.user.password").doesNotExist());
     }
 
     @Test
@@ -97,7 +117,9 @@ class ReviewControllerTest extends IntegrationTest {
                 .andExpect(jsonPath("$.content[0].updatedAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[0].createdAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[0].book").isNotEmpty())
-                .andExpect(jsonPath("$.content[0].user").isNotEmpty());
+                .andExpect(jsonPath("$.content[0].book.description").doesNotExist())
+                .andExpect(jsonPath("$.content[0].user.username", is(USER_1_USERNAME)))
+                .andExpect(jsonPath("$.content[0].user.password").doesNotExist());
     }
 
     @Test
@@ -114,7 +136,76 @@ class ReviewControllerTest extends IntegrationTest {
                 .andExpect(jsonPath("$.content[0].updatedAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[0].createdAt").isNotEmpty())
                 .andExpect(jsonPath("$.content[0].book").isNotEmpty())
-                .andExpect(jsonPath("$.content[0].user").isNotEmpty());
+                .andExpect(jsonPath("$.content[0].book.description").doesNotExist())
+                .andExpect(jsonPath("$.content[0].user.username", is(USER_1_USERNAME)))
+                .andExpect(jsonPath("$.content[0].user.password").doesNotExist());
+    }
+
+    @Test
+    public void streamReviewsByBookId_should_stream_reviews_as_ndjson() throws Exception {
+        // Streaming runs outside the test transaction, so it reads the seeded reviews of book 1
+        MvcResult result = mockMvc.perform(get(GET_REVIEW_BY_BOOK_ID, 1).accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(startsWith("{\"id\":{")))
+                .andExpect(content().string(containsString("\"bookId\":1")));
+    }
+
+    @Test
+    public void streamReviewsByBookId_should_stream_every_review_across_pages() throws Exception {
+        // Book 1 has four seeded reviews and the test profile reads three per page
+        MvcResult result = mockMvc.perform(get(GET_REVIEW_BY_BOOK_ID, 1).accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines().map(line -> line.substring(0, line.indexOf('}'))).distinct().count())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public void getBookTimeline_should_return_first_slice_of_book_reviews() throws Exception {
+        mockMvc.perform(get(GET_BOOK_TIMELINE, BOOK_1_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.nextCursor").isEmpty())
+                .andExpect(jsonPath("$.content[0].id.userId", is(USER_1_ID)))
+                .andExpect(jsonPath("$.content[0].id.bookId", is(BOOK_1_ID)));
+    }
+
+    @Test
+    public void getBookTimeline_should_return_reviews_older_than_cursor() throws Exception {
+        String cursor = new ReviewCursor(LocalDateTime.of(2022, 5, 26, 15, 32, 10, 21749000), (long) USER_1_ID).encode();
+
+        mockMvc.perform(get(GET_BOOK_TIMELINE, BOOK_1_ID).param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    public void getBookTimeline_should_fail_when_given_malformed_cursor() throws Exception {
+        mockMvc.perform(get(GET_BOOK_TIMELINE, BOOK_1_ID).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode", is(400)))
+                .andExpect(jsonPath("$.message").isNotEmpty());
+    }
+
+    @Test
+    public void getUserTimeline_should_return_first_slice_of_user_reviews() throws Exception {
+        mockMvc.perform(get(GET_USER_TIMELINE, USER_1_USERNAME).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.content[0].id.userId", is(USER_1_ID)))
+                .andExpect(jsonPath("$.content[0].id.bookId", is(BOOK_1_ID)));
     }
 
     @Test
@@ -140,13 +231,28 @@ class ReviewControllerTest extends IntegrationTest {
                 .andExpect(jsonPath("$.id.userId", is(USER_1_ID)))
                 .andExpect(jsonPath("$.id.bookId", is(BOOK_2_ID)))
                 .andExpect(jsonPath("$.content", is("Content")))
-                .andExpect(jsonPath("$.rate", is(5)));
+                .andExpect(jsonPath("$.rate", is(5)))
+                .andExpect(jsonPath("$.user.username", is(USER_1_USERNAME)))
+                .andExpect(jsonPath("$.book.title").isNotEmpty());
 
         int size = reviewRepository.findAll().size();
         assertThat(size)
                 .isEqualTo(INITIAL_REVIEW_COUNT + 1);
     }
 
+    @Test
+    @WithUserDetails(value = USER_1_USERNAME)
+    public void postShelf_should_fail_when_review_already_exists() throws Exception {
+        ReviewRequestDTO requestDTO = new ReviewRequestDTO("Content", 5);
+
+        mockMvc.perform(post(POST_REVIEW, USER_1_USERNAME, BOOK_1_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.statusCode", is(409)))
+                .andExpect(jsonPath("$.message").isNotEmpty());
+    }
+
     @Test
     @WithUserDetails(value = USER_2_USERNAME)
     public void postShelf_should_fail_when_given_not_currently_logged_user() throws Exception {
@@ -181,6 +287,62 @@ class ReviewControllerTest extends IntegrationTest {
                 .isEqualTo(INITIAL_REVIEW_COUNT);
     }
 
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void importReviews_should_insert_valid_rows_and_report_rejected_ones() throws Exception {
+        String csv = """
+                username,bookId,rate,content,createdAt
+                kowalski,101,4,"Imported, with a comma",2020-01-01T10:00:00
+                nowak,101,5,Already reviewed,
+                kowalski,101,3,Duplicated in file,
+                ghost,101,5,Unknown user,
+                nowak,999,5,Unknown book,
+                kowalski,102,7,Rate out of range,
+                nowak,102,5,,
+                """;
+
+        mockMvc.perform(post(IMPORT_REVIEWS)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(2)))
+                .andExpect(jsonPath("$.rejected", is(5)))
+                .andExpect(jsonPath("$.rejections.length()", is(5)));
+
+        int size = reviewRepository.findAll().size();
+        assertThat(size)
+                .isEqualTo(INITIAL_REVIEW_COUNT + 2);
+    }
+
+    @Test
+    @WithMockUser(value = "admin", roles = "ADMIN")
+    public void importReviews_should_reject_rate_that_overflows_int() throws Exception {
+        mockMvc.perform(post(IMPORT_REVIEWS)
+                        .contentType("application/x-ndjson")
+                        .content("{\"username\": \"nowak\", \"bookId\": 102, \"rate\": 4294967297}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(0)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.rejections[0].reason", is("rate: must be between 1 and 5")));
+
+        int size = reviewRepository.findAll().size();
+        assertThat(size)
+                .isEqualTo(INITIAL_REVIEW_COUNT);
+    }
+
+    @Test
+    @WithUserDetails(value = USER_1_USERNAME)
+    public void importReviews_should_fail_for_ordinary_user() throws Exception {
+        mockMvc.perform(post(IMPORT_REVIEWS)
+                        .contentType("application/x-ndjson")
+                        .content("{\"username\": \"nowak\", \"bookId\": 102, \"rate\": 5}\n"))
+                .andExpect(status().isForbidden());
+
+        int size = reviewRepository.findAll().size();
+        assertThat(size)
+                .isEqualTo(INITIAL_REVIEW_COUNT);
+    }
+
     @Test
     @WithUserDetails(value = USER_1_USERNAME)
     public void updateShelf_should_update_existing_review() throws Exception {
@@ -191,7 +353,57 @@ class ReviewControllerTest extends IntegrationTest {
                         .content(objectMapper.writeValueAsString(requestDTO)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", is("Content")))
-                .andExpect(jsonPath("$.rate", is(1)));
+                .andExpect(jsonPath("$.rate", is(1)))
+                .andExpect(jsonPath("$.user.username", is(USER_1_USERNAME)))
+                .andExpect(jsonPath("$.book.id", is(BOOK_1_ID)));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_1_USERNAME)
+    public void updateShelf_should_apply_when_if_match_has_current_version() throws Exception {
+        ReviewRequestDTO requestDTO = new ReviewRequestDTO("Conditional", 2);
+
+        mockMvc.perform(get(GET_REVIEW_BY_USERNAME_AND_BOOK_ID, USER_1_USERNAME, BOOK_1_ID))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        mockMvc.perform(put(UPDATE_REVIEW, USER_1_USERNAME, BOOK_1_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.content", is("Conditional")))
+                .andExpect(jsonPath("$.rate", is(2)))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_1_USERNAME)
+    public void updateShelf_should_fail_when_if_match_has_stale_version() throws Exception {
+        ReviewRequestDTO requestDTO = new ReviewRequestDTO("Conditional", 2);
+
+        mockMvc.perform(put(UPDATE_REVIEW, USER_1_USERNAME, BOOK_1_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.statusCode", is(412)));
+        mockMvc.perform(put(UPDATE_REVIEW, USER_1_USERNAME, BOOK_2_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_1_USERNAME)
+    public void updateShelf_should_validate_conditional_update() throws Exception {
+        ReviewRequestDTO requestDTO = new ReviewRequestDTO("Conditional", 6);
+
+        mockMvc.perform(put(UPDATE_REVIEW, USER_1_USERNAME, BOOK_1_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isConflict());
     }
 
     @Test
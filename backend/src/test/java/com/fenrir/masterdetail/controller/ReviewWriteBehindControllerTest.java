@@ -0,0 +1,140 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.service.ReviewWriteBehindService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@TestPropertySource(properties = "bookly.reviews.write-behind.enabled=true")
+class ReviewWriteBehindControllerTest {
+    private static final String REVIEW = "/api/reviews/{username}/{bookId}";
+    private static final String USERNAME = "goluch123";
+    private static final long USER_ID = 5;
+    private static final long BOOK_ID = 3;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReviewWriteBehindService reviewWriteBehindService;
+
+    private MockMvc mockMvc;
+    private String lastToken;
+
+    @BeforeEach
+    public void setup() {
+        this.mockMvc = MockMvcBuilders
+                .webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reviewWriteBehindService.awaitApplied(lastToken);
+        jdbcTemplate.update("DELETE FROM review WHERE user_id = ? AND book_id = ?", USER_ID, BOOK_ID);
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME)
+    public void postShelf_should_accept_review_and_read_it_back_with_token() throws Exception {
+        String token = write(post(REVIEW, USERNAME, BOOK_ID), new ReviewRequestDTO("Queued", 4));
+
+        mockMvc.perform(get(REVIEW, USERNAME, BOOK_ID)
+                        .header(ReviewWriteBehindService.WRITE_TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Queued")))
+                .andExpect(jsonPath("$.rate", is(4)));
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME)
+    public void updateShelf_should_apply_latest_queued_write() throws Exception {
+        write(post(REVIEW, USERNAME, BOOK_ID), new ReviewRequestDTO("First", 2));
+        String token = write(put(REVIEW, USERNAME, BOOK_ID), new ReviewRequestDTO("Second", 5));
+
+        mockMvc.perform(get(REVIEW, USERNAME, BOOK_ID)
+                        .header(ReviewWriteBehindService.WRITE_TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Second")))
+                .andExpect(jsonPath("$.rate", is(5)));
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME)
+    public void deleteShelf_should_not_be_undone_by_queued_write() throws Exception {
+        write(post(REVIEW, USERNAME, BOOK_ID), new ReviewRequestDTO("First", 2));
+        write(put(REVIEW, USERNAME, BOOK_ID), new ReviewRequestDTO("Second", 5));
+
+        mockMvc.perform(delete(REVIEW, USERNAME, BOOK_ID))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(REVIEW, USERNAME, BOOK_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME)
+    public void postShelf_should_reject_invalid_review_synchronously() throws Exception {
+        mockMvc.perform(post(REVIEW, USERNAME, BOOK_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReviewRequestDTO("Invalid", 0))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.constraintViolations").isNotEmpty());
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME)
+    public void postShelf_should_reject_duplicate_review_synchronously() throws Exception {
+        write(post(REVIEW, USERNAME, BOOK_ID), new ReviewRequestDTO("First", 2));
+
+        mockMvc.perform(post(REVIEW, USERNAME, BOOK_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReviewRequestDTO("Again", 3))))
+                .andExpect(status().isConflict());
+    }
+
+    private String write(
+            MockHttpServletRequestBuilder request,
+            ReviewRequestDTO review) throws Exception {
+
+        String body = mockMvc.perform(request
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(review)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.bookId", is((int) BOOK_ID)))
+                .andReturn().getResponse().getContentAsString();
+        lastToken = objectMapper.readTree(body).get("token").asText();
+        return lastToken;
+    }
+}
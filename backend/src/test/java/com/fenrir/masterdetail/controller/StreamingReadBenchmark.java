@@ -0,0 +1,185 @@
+package com.fenrir.masterdetail.controller;
+
+import com.fenrir.masterdetail.dto.ImportSummaryDTO;
+import com.fenrir.masterdetail.io.CsvRecordReader;
+import com.fenrir.masterdetail.service.BookImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saturates the server with clients walking the whole catalog, once through JSON pages and once through the
+ * NDJSON stream, and reports time to the first book and to the last one. Use {@code mvn test -Pbenchmark}.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StreamingReadBenchmark {
+    private static final int BOOKS = 5_000;
+    private static final int PAGE_SIZE = 500;
+    private static final int CLIENTS = 64;
+    private static final int WALKS_PER_CLIENT = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private long seededBooks;
+    private long lastSeededBookId;
+    private long lastSeededAuthorId;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        seededBooks = jdbcTemplate.queryForObject("SELECT count(*) FROM book", Long.class);
+        lastSeededBookId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM book", Long.class);
+        lastSeededAuthorId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM author", Long.class);
+        ImportSummaryDTO summary = bookImportService.importBooks(new CsvRecordReader(new StringReader(catalog())));
+        assertThat(summary.getAccepted())
+                .isEqualTo(BOOKS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM book_description WHERE book_id > ?", lastSeededBookId);
+        jdbcTemplate.update("DELETE FROM book WHERE id > ?", lastSeededBookId);
+        jdbcTemplate.update("DELETE FROM author WHERE id > ?", lastSeededAuthorId);
+    }
+
+    @Test
+    public void walk_catalog_under_saturation() throws Exception {
+        long total = seededBooks + BOOKS;
+        measure("JSON pages", total, this::walkPages);
+        measure("NDJSON stream", total, this::walkStream);
+    }
+
+    private void measure(String name, long total, Walk walk) throws Exception {
+        walk.run(new long[2]);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS * WALKS_PER_CLIENT; i++) {
+            futures.add(clients.submit(() -> {
+                long[] timings = new long[2];
+                assertThat(walk.run(timings))
+                        .isEqualTo(total);
+                return timings;
+            }));
+        }
+        long[] firstBook = new long[futures.size()];
+        long[] lastBook = new long[futures.size()];
+        for (int i = 0; i < futures.size(); i++) {
+            long[] timings = futures.get(i).get();
+            firstBook[i] = timings[0];
+            lastBook[i] = timings[1];
+        }
+        clients.shutdown();
+
+        Arrays.sort(firstBook);
+        Arrays.sort(lastBook);
+        System.out.printf("%s, %d clients: first book p50=%.1f ms p99=%.1f ms, whole catalog p50=%.1f ms p99=%.1f ms%n",
+                name, CLIENTS,
+                firstBook[firstBook.length / 2] / 1e6, firstBook[firstBook.length * 99 / 100] / 1e6,
+                lastBook[lastBook.length / 2] / 1e6, lastBook[lastBook.length * 99 / 100] / 1e6);
+    }
+
+    private long walkPages(long[] timings) throws Exception {
+        long startedAt = System.nanoTime();
+        long books = 0;
+        for (int page = 0; ; page++) {
+            HttpResponse<String> response = client.send(
+                    request("/api/books?sort=id&size=" + PAGE_SIZE + "&page=" + page, "application/json"),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode())
+                    .isEqualTo(200);
+            if (page == 0) {
+                timings[0] = System.nanoTime() - startedAt;
+            }
+            int count = count(response.body(), "\"title\":");
+            books += count;
+            if (count < PAGE_SIZE) {
+                break;
+            }
+        }
+        timings[1] = System.nanoTime() - startedAt;
+        return books;
+    }
+
+    private long walkStream(long[] timings) throws Exception {
+        long startedAt = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(
+                request("/api/books", "application/x-ndjson"), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode())
+                .isEqualTo(200);
+        long books = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            while (reader.readLine() != null) {
+                if (books++ == 0) {
+                    timings[0] = System.nanoTime() - startedAt;
+                }
+            }
+        }
+        timings[1] = System.nanoTime() - startedAt;
+        return books;
+    }
+
+    private HttpRequest request(String path, String accept) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .timeout(Duration.ofMinutes(2))
+                .build();
+    }
+
+    private int count(String body, String token) {
+        int count = 0;
+        for (int index = body.indexOf(token); index >= 0; index = body.indexOf(token, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private String catalog() {
+        StringBuilder csv = new StringBuilder("title,author,description,cover\n");
+        for (int i = 0; i < BOOKS; i++) {
+            csv.append("Streamed book ").append(i).append(",Streamed author ").append(i % 500)
+                    .append(",A description of streamed book ").append(i)
+                    .append(",https://covers.example.com/").append(i).append(".jpg\n");
+        }
+        return csv.toString();
+    }
+
+    private interface Walk {
+        long run(long[] timings) throws Exception;
+    }
+}
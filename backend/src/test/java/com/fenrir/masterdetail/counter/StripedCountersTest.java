@@ -0,0 +1,99 @@
+package com.fenrir.masterdetail.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedCountersTest {
+
+    @Test
+    public void increment_should_count_concurrent_increments_on_one_key() throws Exception {
+        StripedCounters<Long> counters = new StripedCounters<>();
+        int threads = 8;
+        int increments = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < increments; j++) {
+                        counters.increment(1L);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(counters.get(1L)).isEqualTo((long) threads * increments);
+    }
+
+    @Test
+    public void drain_should_return_deltas_since_previous_drain() {
+        StripedCounters<Long> counters = new StripedCounters<>();
+        counters.increment(1L);
+        counters.add(2L, 5);
+
+        assertThat(counters.drain()).isEqualTo(Map.of(1L, 1L, 2L, 5L));
+        counters.increment(1L);
+
+        assertThat(counters.drain()).isEqualTo(Map.of(1L, 1L));
+        assertThat(counters.drain()).isEmpty();
+    }
+
+    @Test
+    public void drain_should_not_lose_increments_made_while_draining() throws Exception {
+        StripedCounters<Long> counters = new StripedCounters<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        long drained = 0;
+        try {
+            Future<Long> incremented = executor.submit(() -> {
+                long count = 0;
+                started.countDown();
+                while (!stop.get()) {
+                    counters.increment(1L);
+                    count++;
+                }
+                return count;
+            });
+            started.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 1000; i++) {
+                drained += counters.drain().getOrDefault(1L, 0L);
+            }
+            stop.set(true);
+            long total = incremented.get(5, TimeUnit.SECONDS);
+            drained += counters.drain().getOrDefault(1L, 0L);
+
+            assertThat(drained).isEqualTo(total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void addAll_should_put_back_deltas_of_failed_write() {
+        StripedCounters<Long> counters = new StripedCounters<>();
+        counters.add(1L, 3);
+        Map<Long, Long> deltas = counters.drain();
+        counters.increment(1L);
+
+        counters.addAll(deltas);
+
+        assertThat(counters.get(1L)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,69 @@
+package com.fenrir.masterdetail.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    public void next_should_map_fields_to_header_names() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("title,author\r\nDune,Frank Herbert\r\n"));
+
+        assertThat(reader.next())
+                .isEqualTo(Map.of("title", "Dune", "author", "Frank Herbert"));
+        assertThat(reader.getLineNumber())
+                .isEqualTo(2);
+        assertThat(reader.next())
+                .isNull();
+    }
+
+    @Test
+    public void next_should_read_quoted_fields_with_separators_quotes_and_line_breaks() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "title,description\n\"A, B\",\"Say \"\"hi\"\"\nover two lines\"\nC,D\n"
+        ));
+
+        assertThat(reader.next())
+                .isEqualTo(Map.of("title", "A, B", "description", "Say \"hi\"\nover two lines"));
+        assertThat(reader.next())
+                .isEqualTo(Map.of("title", "C", "description", "D"));
+        assertThat(reader.getLineNumber())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public void next_should_skip_blank_lines() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("title\n\nDune\n\n"));
+
+        assertThat(reader.next())
+                .isEqualTo(Map.of("title", "Dune"));
+        assertThat(reader.next())
+                .isNull();
+    }
+
+    @Test
+    public void next_should_reject_record_with_wrong_field_count_and_continue() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("title,author\nDune\nEmma,Jane Austen\n"));
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(MalformedRecordException.class)
+                .hasMessage("Expected 2 fields but found 1");
+        assertThat(reader.next())
+                .isEqualTo(Map.of("title", "Emma", "author", "Jane Austen"));
+    }
+
+    @Test
+    public void next_should_reject_unterminated_quoted_field() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("title\n\"Dune\n"));
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(MalformedRecordException.class)
+                .hasMessage("Unterminated quoted field");
+    }
+}
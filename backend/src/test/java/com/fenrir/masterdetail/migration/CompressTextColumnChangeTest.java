@@ -0,0 +1,77 @@
+package com.fenrir.masterdetail.migration;
+
+import com.fenrir.masterdetail.model.converter.CompressedText;
+import liquibase.database.core.H2Database;
+import liquibase.database.jvm.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressTextColumnChangeTest {
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:compress-text-column", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE note (book_id bigint NOT NULL, user_id bigint NOT NULL, " +
+                    "text varchar(1000), text_data varbinary(1001), PRIMARY KEY (book_id, user_id))");
+        }
+        String sql = "INSERT INTO note (book_id, user_id, text) VALUES (?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long bookId = 1; bookId <= 3; bookId++) {
+                for (long userId = 1; userId <= 3; userId++) {
+                    insert.setLong(1, bookId);
+                    insert.setLong(2, userId);
+                    insert.setString(3, bookId == 2 && userId == 2 ? null : "note " + bookId + "/" + userId);
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE note");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void execute_should_compress_every_row_across_pages() throws Exception {
+        CompressTextColumnChange change = new CompressTextColumnChange();
+        change.setTableName("note");
+        change.setKeyColumns("book_id, user_id");
+        change.setSourceColumn("text");
+        change.setTargetColumn("text_data");
+        change.setBatchSize(2);
+        H2Database database = new H2Database();
+        database.setConnection(new JdbcConnection(connection));
+
+        change.execute(database);
+
+        Map<String, String> compressed = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT book_id, user_id, text_data FROM note")) {
+            while (rows.next()) {
+                byte[] stored = rows.getBytes("text_data");
+                compressed.put(rows.getLong("book_id") + "/" + rows.getLong("user_id"),
+                        stored == null ? null : CompressedText.decode(stored));
+            }
+        }
+        assertThat(compressed).hasSize(9);
+        compressed.forEach((key, text) -> assertThat(text).isEqualTo(key.equals("2/2") ? null : "note " + key));
+        assertThat(change.getConfirmationMessage()).startsWith("Compressed 8 rows");
+    }
+}
@@ -0,0 +1,70 @@
+package com.fenrir.masterdetail.model.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedTextTest {
+    private static final String LONG_TEXT = "Winter is coming to the lands of the Seven Kingdoms. ".repeat(40);
+
+    @Test
+    public void encode_should_keep_short_text_as_plain_utf8() {
+        String text = "Short review – great book";
+
+        assertThat(CompressedText.encode(text))
+                .isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void encode_should_compress_long_text() {
+        byte[] stored = CompressedText.encode(LONG_TEXT);
+
+        assertThat(stored.length)
+                .isLessThan(LONG_TEXT.length() / 4);
+        assertThat(CompressedText.decode(stored))
+                .isEqualTo(LONG_TEXT);
+    }
+
+    @Test
+    public void encode_should_keep_long_text_raw_when_compression_does_not_help() {
+        StringBuilder noise = new StringBuilder();
+        Random random = new Random(7);
+        while (noise.length() < 300) {
+            noise.appendCodePoint(0x4E00 + random.nextInt(20_000));
+        }
+        String text = noise.toString();
+
+        byte[] stored = CompressedText.encode(text);
+
+        assertThat(CompressedText.decode(stored))
+                .isEqualTo(text);
+    }
+
+    @Test
+    public void decode_should_round_trip_text_starting_with_marker_byte() {
+        String text = "\0abc";
+
+        assertThat(CompressedText.decode(CompressedText.encode(text)))
+                .isEqualTo(text);
+    }
+
+    @Test
+    public void decode_should_read_plain_text_written_before_compression() {
+        assertThat(CompressedText.decode("legacy text".getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("legacy text");
+    }
+
+    @Test
+    public void decode_should_fail_on_truncated_value() {
+        byte[] stored = CompressedText.encode(LONG_TEXT);
+        byte[] truncated = Arrays.copyOf(stored, stored.length / 2);
+
+        assertThatThrownBy(() -> CompressedText.decode(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
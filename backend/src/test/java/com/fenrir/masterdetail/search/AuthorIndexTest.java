@@ -0,0 +1,82 @@
+package com.fenrir.masterdetail.search;
+
+import com.fenrir.masterdetail.dto.AuthorBookCountDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AuthorIndexTest {
+
+    @Test
+    public void page_should_return_authors_ordered_by_name_with_book_counts() {
+        AuthorIndex index = createIndex();
+
+        AuthorIndex.Result result = index.page(AuthorIndex.Order.NAME, false, 0, 10);
+
+        assertThat(result.getAuthors())
+                .extracting(AuthorBookCountDTO::getAuthor, AuthorBookCountDTO::getBookCount)
+                .containsExactly(
+                        tuple("Andrzej Sapkowski", 1L),
+                        tuple("George R.R. Martin", 3L),
+                        tuple("James S.A. Corey", 2L)
+                );
+        assertThat(result.getTotal())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void page_should_return_authors_ordered_by_book_count() {
+        AuthorIndex index = createIndex();
+
+        AuthorIndex.Result result = index.page(AuthorIndex.Order.BOOK_COUNT, true, 0, 2);
+
+        assertThat(result.getAuthors())
+                .extracting(AuthorBookCountDTO::getAuthor)
+                .containsExactly("George R.R. Martin", "James S.A. Corey");
+        assertThat(result.getTotal())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void put_should_move_book_to_new_author() {
+        AuthorIndex index = createIndex();
+        index.put(6L, "George R.R. Martin");
+
+        assertThat(index.count("George R.R. Martin"))
+                .isEqualTo(4);
+        assertThat(index.count("Andrzej Sapkowski"))
+                .isZero();
+        assertThat(index.size())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void put_should_not_count_same_book_twice() {
+        AuthorIndex index = createIndex();
+        index.put(1L, "George R.R. Martin");
+
+        assertThat(index.count("George R.R. Martin"))
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void remove_should_decrement_author_count() {
+        AuthorIndex index = createIndex();
+        index.remove(4L);
+
+        assertThat(index.count("James S.A. Corey"))
+                .isEqualTo(1);
+    }
+
+    private AuthorIndex createIndex() {
+        AuthorIndex index = new AuthorIndex();
+        index.put(1L, "George R.R. Martin");
+        index.put(2L, "George R.R. Martin");
+        index.put(3L, "George R.R. Martin");
+        index.put(4L, "James S.A. Corey");
+        index.put(5L, "James S.A. Corey");
+        index.put(6L, "Andrzej Sapkowski");
+        return index;
+    }
+}
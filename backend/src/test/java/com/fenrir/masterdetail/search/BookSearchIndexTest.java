@@ -0,0 +1,80 @@
+package com.fenrir.masterdetail.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTest {
+
+    @Test
+    public void search_should_rank_title_matches_above_description_matches() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.index(1L, "A Game of Thrones", "George R.R. Martin", "Dragons are coming back to the world.");
+        index.index(2L, "A Dance with Dragons", "George R.R. Martin", "The queen and her three dragons.");
+        index.index(3L, "Leviathan Wakes", "James S.A. Corey", "Humanity has colonized the solar system.");
+
+        List<SearchHit> hits = index.search("dragons", 10);
+
+        assertThat(hits)
+                .extracting(SearchHit::getBookId)
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void search_should_ignore_case_and_diacritics() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.index(1L, "Wiedźmin", "Andrzej Sapkowski", null);
+
+        assertThat(index.search("WIEDZMIN", 10))
+                .extracting(SearchHit::getBookId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    public void search_should_return_at_most_limit_best_hits() {
+        BookSearchIndex index = new BookSearchIndex();
+        for (long id = 1; id <= 50; id++) {
+            index.index(id, "Book " + id, "Author", "word ".repeat((int) id));
+        }
+
+        List<SearchHit> hits = index.search("word", 3);
+
+        assertThat(hits)
+                .extracting(SearchHit::getBookId)
+                .containsExactly(50L, 49L, 48L);
+    }
+
+    @Test
+    public void index_should_replace_previous_version_of_book() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.index(1L, "Old title", "Author", null);
+        index.index(1L, "New title", "Author", null);
+
+        assertThat(index.search("old", 10))
+                .isEmpty();
+        assertThat(index.search("new", 10))
+                .extracting(SearchHit::getBookId)
+                .containsExactly(1L);
+        assertThat(index.size())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void remove_should_drop_book_and_keep_others_searchable_after_compaction() {
+        BookSearchIndex index = new BookSearchIndex();
+        for (long id = 1; id <= 3000; id++) {
+            index.index(id, "Title " + id, "Author", null);
+        }
+        for (long id = 1; id < 3000; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.size())
+                .isEqualTo(1);
+        assertThat(index.search("author", 10))
+                .extracting(SearchHit::getBookId)
+                .containsExactly(3000L);
+    }
+}
@@ -0,0 +1,126 @@
+package com.fenrir.masterdetail.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenreIndexTest {
+
+    @Test
+    public void filter_should_return_books_matching_any_genre() {
+        GenreIndex index = createIndex();
+
+        GenreIndex.Result result = index.filter(List.of("fantasy", "horror"), false, GenreIndex.Order.ID, false, 0, 10);
+
+        assertThat(result.getBookIds())
+                .containsExactly(1L, 2L, 3L);
+        assertThat(result.getTotal())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void filter_should_return_books_matching_all_genres() {
+        GenreIndex index = createIndex();
+
+        GenreIndex.Result result = index.filter(List.of("fantasy", "horror"), true, GenreIndex.Order.ID, false, 0, 10);
+
+        assertThat(result.getBookIds())
+                .containsExactly(2L);
+    }
+
+    @Test
+    public void filter_should_return_nothing_when_any_genre_is_unknown_and_all_must_match() {
+        GenreIndex index = createIndex();
+
+        GenreIndex.Result result = index.filter(List.of("fantasy", "unknown"), true, GenreIndex.Order.ID, false, 0, 10);
+
+        assertThat(result.getBookIds())
+                .isEmpty();
+        assertThat(result.getTotal())
+                .isZero();
+    }
+
+    @Test
+    public void filter_should_page_by_id_in_descending_order() {
+        GenreIndex index = createIndex();
+
+        GenreIndex.Result result = index.filter(List.of("fantasy", "horror"), false, GenreIndex.Order.ID, true, 1, 1);
+
+        assertThat(result.getBookIds())
+                .containsExactly(2L);
+        assertThat(result.getTotal())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void filter_should_page_by_title() {
+        GenreIndex index = createIndex();
+
+        GenreIndex.Result result = index.filter(List.of("fantasy", "horror"), false, GenreIndex.Order.TITLE, false, 0, 10);
+
+        assertThat(result.getBookIds())
+                .containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    public void removeBook_should_drop_book_from_every_genre() {
+        GenreIndex index = createIndex();
+        index.removeBook(2L);
+
+        assertThat(index.filter(List.of("fantasy", "horror"), false, GenreIndex.Order.TITLE, false, 0, 10).getBookIds())
+                .containsExactly(3L, 1L);
+    }
+
+    @Test
+    public void removeBook_should_keep_genres_and_id_order_after_compaction() {
+        GenreIndex index = new GenreIndex();
+        index.putGenre(1L, "fantasy");
+        for (long id = 1; id <= 3000; id++) {
+            index.putBook(id, "Title " + (3001 - id));
+            if (id % 2 == 0) {
+                index.assign(1L, id);
+            }
+        }
+        for (long id = 1; id <= 2990; id++) {
+            index.removeBook(id);
+        }
+        index.putBook(3001L, "Title 0");
+        index.assign(1L, 3001L);
+
+        assertThat(index.filter(List.of("fantasy"), false, GenreIndex.Order.ID, false, 0, 10).getBookIds())
+                .containsExactly(2992L, 2994L, 2996L, 2998L, 3000L, 3001L);
+        assertThat(index.filter(List.of("fantasy"), false, GenreIndex.Order.ID, true, 0, 2).getBookIds())
+                .containsExactly(3001L, 3000L);
+        assertThat(index.filter(List.of("fantasy"), false, GenreIndex.Order.TITLE, false, 0, 3).getBookIds())
+                .containsExactly(3001L, 3000L, 2998L);
+    }
+
+    @Test
+    public void removeGenre_should_stop_matching_genre_name() {
+        GenreIndex index = createIndex();
+        index.removeGenre(2L);
+
+        assertThat(index.filter(List.of("horror"), false, GenreIndex.Order.ID, false, 0, 10).getBookIds())
+                .isEmpty();
+    }
+
+    private GenreIndex createIndex() {
+        GenreIndex index = new GenreIndex();
+        index.putGenre(1L, "fantasy");
+        index.putGenre(2L, "horror");
+        index.putGenre(3L, "science-fiction");
+        index.putBook(1L, "The Winds of Winter");
+        index.putBook(2L, "Mexican Gothic");
+        index.putBook(3L, "A Game of Thrones");
+        index.putBook(4L, "Leviathan Wakes");
+        index.assign(1L, 1L);
+        index.assign(1L, 2L);
+        index.assign(2L, 2L);
+        index.assign(2L, 3L);
+        index.assign(3L, 4L);
+        index.optimize();
+        return index;
+    }
+}
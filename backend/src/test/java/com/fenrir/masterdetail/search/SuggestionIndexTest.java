@@ -0,0 +1,81 @@
+package com.fenrir.masterdetail.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SuggestionIndexTest {
+
+    @Test
+    public void suggest_should_return_titles_and_authors_ordered_by_weight() {
+        SuggestionIndex index = new SuggestionIndex(10);
+        index.put(1L, "A Game of Thrones", "George R.R. Martin", 5);
+        index.put(2L, "A Clash of Kings", "George R.R. Martin", 2);
+        index.put(3L, "Gardens of the Moon", "Steven Erikson", 9);
+
+        assertThat(index.suggest("ga", 10))
+                .extracting(Suggestion::getText)
+                .containsExactly("Gardens of the Moon", "A Game of Thrones");
+        assertThat(index.suggest("GEORGE", 10))
+                .extracting(Suggestion::getText, Suggestion::getType, Suggestion::getWeight)
+                .containsExactly(tuple("George R.R. Martin", Suggestion.Type.AUTHOR, 7L));
+    }
+
+    @Test
+    public void suggest_should_return_at_most_limit_suggestions() {
+        SuggestionIndex index = new SuggestionIndex(10);
+        for (long id = 1; id <= 20; id++) {
+            index.put(id, "Book " + id, "Author " + id, id);
+        }
+
+        assertThat(index.suggest("book", 3))
+                .extracting(Suggestion::getBookId)
+                .containsExactly(20L, 19L, 18L);
+    }
+
+    @Test
+    public void remove_should_drop_book_and_promote_next_best_suggestion() {
+        SuggestionIndex index = new SuggestionIndex(2);
+        index.put(1L, "Dune", "Frank Herbert", 3);
+        index.put(2L, "Dune Messiah", "Frank Herbert", 2);
+        index.put(3L, "Children of Dune", "Frank Herbert", 1);
+
+        index.remove(1L);
+
+        assertThat(index.suggest("dune", 10))
+                .extracting(Suggestion::getBookId)
+                .containsExactly(2L, 3L);
+        assertThat(index.suggest("frank", 10))
+                .extracting(Suggestion::getWeight)
+                .containsExactly(3L);
+    }
+
+    @Test
+    public void put_should_replace_previous_title_and_author() {
+        SuggestionIndex index = new SuggestionIndex(10);
+        index.put(1L, "Old title", "Old Author", 1);
+        index.put(1L, "New title", "New Author", 1);
+
+        assertThat(index.suggest("old", 10))
+                .isEmpty();
+        assertThat(index.suggest("new", 10))
+                .extracting(Suggestion::getText)
+                .containsExactly("New Author", "New title");
+    }
+
+    @Test
+    public void updateWeight_should_reorder_suggestions() {
+        SuggestionIndex index = new SuggestionIndex(10);
+        index.put(1L, "Dune", "Frank Herbert", 1);
+        index.put(2L, "Dune Messiah", "Frank Herbert", 2);
+
+        index.updateWeight(1L, 5);
+
+        assertThat(index.suggest("dune", 10))
+                .extracting(Suggestion::getBookId)
+                .containsExactly(1L, 2L);
+        assertThat(index.weight(1L))
+                .isEqualTo(5);
+    }
+}
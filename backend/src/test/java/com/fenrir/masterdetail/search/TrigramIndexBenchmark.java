@@ -0,0 +1,117 @@
+package com.fenrir.masterdetail.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the fuzzy index over a synthetic 1M book catalog and reports build time, retained heap and query
+ * latency. Not part of the regular test run, use {@code mvn test -Pbenchmark}.
+ */
+class TrigramIndexBenchmark {
+    private static final int BOOKS = 1_000_000;
+    private static final int AUTHORS = 50_000;
+    private static final int QUERIES = 2_000;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void fuzzy_search_over_one_million_books() {
+        String[] vocabulary = words(20_000);
+        String[] authors = new String[AUTHORS];
+        for (int i = 0; i < AUTHORS; i++) {
+            authors[i] = capitalize(word()) + " " + capitalize(word());
+        }
+
+        long heapBefore = usedHeap();
+        long startedAt = System.nanoTime();
+        TrigramIndex index = new TrigramIndex();
+        String[] titles = new String[BOOKS];
+        for (int i = 0; i < BOOKS; i++) {
+            titles[i] = title(vocabulary);
+            index.index(i, titles[i], authors[i % AUTHORS]);
+        }
+        long buildMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        long retainedMegabytes = (usedHeap() - heapBefore - estimateTitleBytes(titles)) / (1024 * 1024);
+
+        long[] latencies = new long[QUERIES];
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            String query = misspell(authors[random.nextInt(AUTHORS)].split(" ")[1]);
+            long queryStartedAt = System.nanoTime();
+            List<SearchHit> hits = index.search(query, 20);
+            latencies[i] = System.nanoTime() - queryStartedAt;
+            if (!hits.isEmpty()) {
+                found++;
+            }
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Trigram index: %d books built in %d ms, ~%d MB retained%n",
+                index.size(), buildMillis, retainedMegabytes);
+        System.out.printf("Fuzzy queries: p50=%.2f ms, p99=%.2f ms, max=%.2f ms, %d/%d found%n",
+                latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 99 / 100] / 1e6,
+                latencies[QUERIES - 1] / 1e6, found, QUERIES);
+
+        assertThat(index.size())
+                .isEqualTo(BOOKS);
+        assertThat(found)
+                .isGreaterThan(QUERIES * 9 / 10);
+    }
+
+    private String[] words(int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = word();
+        }
+        return words;
+    }
+
+    private String word() {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    private String title(String[] vocabulary) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(capitalize(vocabulary[random.nextInt(vocabulary.length)]));
+        }
+        return title.toString();
+    }
+
+    private String misspell(String word) {
+        char[] chars = word.toLowerCase().toCharArray();
+        chars[random.nextInt(chars.length)] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+        return new String(chars);
+    }
+
+    private String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private long estimateTitleBytes(String[] titles) {
+        return Arrays.stream(titles).mapToLong(title -> 40L + title.length()).sum();
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
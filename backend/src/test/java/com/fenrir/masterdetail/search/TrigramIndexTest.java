@@ -0,0 +1,74 @@
+package com.fenrir.masterdetail.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    public void search_should_find_misspelled_author() {
+        TrigramIndex index = new TrigramIndex();
+        index.index(1L, "The Last Wish", "Andrzej Sapkowski");
+        index.index(2L, "Leviathan Wakes", "James S.A. Corey");
+
+        assertThat(index.search("sapkovsky", 10))
+                .extracting(SearchHit::getBookId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    public void search_should_rank_closer_matches_first() {
+        TrigramIndex index = new TrigramIndex();
+        index.index(1L, "Dune", "Frank Herbert");
+        index.index(2L, "Dunk", "Someone Else");
+        index.index(3L, "Children of Dune", "Frank Herbert");
+
+        assertThat(index.search("dune", 10))
+                .extracting(SearchHit::getBookId)
+                .containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    public void search_should_not_return_books_beyond_edit_distance() {
+        TrigramIndex index = new TrigramIndex();
+        index.index(1L, "Leviathan Wakes", "James S.A. Corey");
+
+        assertThat(index.search("lighthouse", 10))
+                .isEmpty();
+    }
+
+    @Test
+    public void remove_should_drop_book_from_results() {
+        TrigramIndex index = new TrigramIndex();
+        index.index(1L, "Leviathan Wakes", "James S.A. Corey");
+        index.remove(1L);
+
+        assertThat(index.search("leviathan", 10))
+                .isEmpty();
+        assertThat(index.size())
+                .isZero();
+    }
+
+    @Test
+    public void search_should_count_every_candidate_of_a_broad_query() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 1; id <= 300; id++) {
+            index.index(id, "Dune volume " + id, "Frank Herbert");
+        }
+        index.index(301L, "Leviathan Wakes", "James S.A. Corey");
+
+        assertThat(index.search("herbert", 500))
+                .hasSize(256)
+                .extracting(SearchHit::getBookId)
+                .doesNotContain(301L);
+    }
+
+    @Test
+    public void substringDistance_should_measure_closest_substring() {
+        assertThat(TrigramIndex.substringDistance("sapkovsky", "andrzej sapkowski"))
+                .isEqualTo(2);
+        assertThat(TrigramIndex.substringDistance("wakes", "leviathan wakes"))
+                .isZero();
+    }
+}
@@ -0,0 +1,89 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.model.Author;
+import com.fenrir.masterdetail.repository.AuthorRepository;
+import com.fenrir.masterdetail.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AuthorService authorService;
+
+    @Test
+    public void resolve_should_create_missing_author_once_and_cache_its_id() {
+        Author createdAuthor = new Author(5L, "Frank Herbert");
+
+        given(authorRepository.findAllByNameIn(Set.of("Frank Herbert")))
+                .willReturn(List.of());
+        given(authorRepository.saveAllAndFlush(List.of(new Author("Frank Herbert"))))
+                .willReturn(List.of(createdAuthor));
+
+        Author firstResolved = authorService.resolve(new Author("Frank Herbert"));
+        Author secondResolved = authorService.resolve(new Author("Frank Herbert"));
+
+        assertThat(firstResolved)
+                .isEqualTo(createdAuthor);
+        assertThat(secondResolved)
+                .isEqualTo(createdAuthor);
+        Mockito.verify(authorRepository, Mockito.times(1)).findAllByNameIn(anyCollection());
+    }
+
+    @Test
+    public void resolve_should_reuse_existing_author_matched_by_collation() {
+        Author existingAuthor = new Author(1L, "George R.R. Martin");
+
+        given(authorRepository.findAllByNameIn(Set.of("george r.r. martin")))
+                .willReturn(List.of(existingAuthor));
+        given(authorRepository.saveAllAndFlush(List.of()))
+                .willReturn(List.of());
+
+        Author resolved = authorService.resolve(new Author("george r.r. martin"));
+
+        assertThat(resolved)
+                .isEqualTo(existingAuthor);
+    }
+
+    @Test
+    public void resolveAll_should_only_look_up_names_missing_from_cache() {
+        Author martin = new Author(1L, "George R.R. Martin");
+        Author corey = new Author(2L, "James S.A. Corey");
+
+        given(authorRepository.findAllByNameIn(Set.of("George R.R. Martin")))
+                .willReturn(List.of(martin));
+        given(authorRepository.findAllByNameIn(Set.of("James S.A. Corey")))
+                .willReturn(List.of(corey));
+        given(authorRepository.saveAllAndFlush(List.of()))
+                .willReturn(List.of());
+
+        authorService.resolveAll(List.of("George R.R. Martin"));
+
+        assertThat(authorService.resolveAll(List.of("George R.R. Martin", "James S.A. Corey")))
+                .containsEntry("George R.R. Martin", martin)
+                .containsEntry("James S.A. Corey", corey);
+        Mockito.verify(authorRepository, Mockito.times(2)).findAllByNameIn(anyCollection());
+    }
+}
@@ -0,0 +1,163 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.deadline.Deadline;
+import com.fenrir.masterdetail.config.deadline.DeadlineContext;
+import com.fenrir.masterdetail.dto.BookDetailDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
+import com.fenrir.masterdetail.dto.StatisticsDTO;
+import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.model.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BookDetailServiceTest {
+    private static final Long BOOK_ID = 1L;
+    private static final String USERNAME = "user123";
+    private static final Duration PART_TIMEOUT = Duration.ofMillis(200);
+
+    @Mock
+    private HotReadService hotReadService;
+
+    @Mock
+    private ReviewService reviewService;
+
+    private BookDetailService bookDetailService;
+
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private final Book book = new Book("Title", "Author", "Description", null);
+    private final StatisticsDTO stats = new StatisticsDTO(BOOK_ID, 1L, 1L, 4.0);
+    private final ReviewResponseDTO review = new ReviewResponseDTO(
+            2L, BOOK_ID, "content", 4, 0L, LocalDateTime.now(), LocalDateTime.now(), USERNAME, "Title", null);
+    private final Page<ReviewResponseDTO> reviews = new PageImpl<>(List.of(review), pageable, 1);
+
+    @BeforeEach
+    public void setUp() {
+        bookDetailService = new BookDetailService(hotReadService, reviewService, 4, 10, PART_TIMEOUT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bookDetailService.shutdown();
+    }
+
+    @Test
+    public void get_should_compose_all_parts() {
+        given(hotReadService.getBook(BOOK_ID)).willReturn(book);
+        given(hotReadService.getBookStatistics(BOOK_ID)).willReturn(stats);
+        given(reviewService.getAll(BOOK_ID, pageable)).willReturn(reviews);
+        given(reviewService.get(USERNAME, BOOK_ID)).willReturn(review);
+
+        BookDetailDTO detail = bookDetailService.get(BOOK_ID, pageable, USERNAME);
+
+        assertThat(detail.getBook()).isSameAs(book);
+        assertThat(detail.getStats()).isSameAs(stats);
+        assertThat(detail.getReviews()).isSameAs(reviews);
+        assertThat(detail.getOwnReview()).isSameAs(review);
+        assertThat(detail.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    public void get_should_skip_own_review_for_anonymous_caller() {
+        given(hotReadService.getBook(BOOK_ID)).willReturn(book);
+        given(hotReadService.getBookStatistics(BOOK_ID)).willReturn(stats);
+        given(reviewService.getAll(BOOK_ID, pageable)).willReturn(reviews);
+
+        BookDetailDTO detail = bookDetailService.get(BOOK_ID, pageable, null);
+
+        assertThat(detail.getOwnReview()).isNull();
+        assertThat(detail.getUnavailable()).isEmpty();
+        verify(reviewService, never()).get(anyString(), any());
+    }
+
+    @Test
+    public void get_should_return_null_own_review_when_caller_has_not_reviewed() {
+        given(hotReadService.getBook(BOOK_ID)).willReturn(book);
+        given(hotReadService.getBookStatistics(BOOK_ID)).willReturn(stats);
+        given(reviewService.getAll(BOOK_ID, pageable)).willReturn(reviews);
+        given(reviewService.get(USERNAME, BOOK_ID)).willThrow(new ResourceNotFoundException("not found"));
+
+        BookDetailDTO detail = bookDetailService.get(BOOK_ID, pageable, USERNAME);
+
+        assertThat(detail.getOwnReview()).isNull();
+        assertThat(detail.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    public void get_should_return_partial_result_when_part_times_out() {
+        given(hotReadService.getBook(BOOK_ID)).willReturn(book);
+        given(hotReadService.getBookStatistics(BOOK_ID)).willAnswer(invocation -> {
+            Thread.sleep(PART_TIMEOUT.toMillis() * 10);
+            return stats;
+        });
+        given(reviewService.getAll(BOOK_ID, pageable)).willReturn(reviews);
+
+        long startedAt = System.nanoTime();
+        BookDetailDTO detail = bookDetailService.get(BOOK_ID, pageable, null);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(PART_TIMEOUT.multipliedBy(5));
+        assertThat(detail.getStats()).isNull();
+        assertThat(detail.getReviews()).isSameAs(reviews);
+        assertThat(detail.getUnavailable()).containsExactly(BookDetailService.STATS);
+    }
+
+    @Test
+    public void get_should_return_partial_result_when_part_fails() {
+        given(hotReadService.getBook(BOOK_ID)).willReturn(book);
+        given(hotReadService.getBookStatistics(BOOK_ID)).willReturn(stats);
+        given(reviewService.getAll(BOOK_ID, pageable)).willThrow(new IllegalStateException("database down"));
+
+        BookDetailDTO detail = bookDetailService.get(BOOK_ID, pageable, null);
+
+        assertThat(detail.getStats()).isSameAs(stats);
+        assertThat(detail.getReviews()).isNull();
+        assertThat(detail.getUnavailable()).containsExactly(BookDetailService.REVIEWS);
+    }
+
+    @Test
+    public void get_should_run_parts_under_request_deadline() {
+        Deadline requestDeadline = Deadline.after(Duration.ofSeconds(5));
+        given(hotReadService.getBook(BOOK_ID)).willReturn(book);
+        given(hotReadService.getBookStatistics(BOOK_ID)).willAnswer(invocation ->
+                DeadlineContext.current().orElse(null) == requestDeadline ? stats : null);
+        given(reviewService.getAll(BOOK_ID, pageable)).willReturn(reviews);
+
+        Deadline previous = DeadlineContext.enter(requestDeadline);
+        BookDetailDTO detail;
+        try {
+            detail = bookDetailService.get(BOOK_ID, pageable, null);
+        } finally {
+            DeadlineContext.restore(previous);
+        }
+
+        assertThat(detail.getStats()).isSameAs(stats);
+    }
+
+    @Test
+    public void get_should_fail_when_book_does_not_exist() {
+        given(hotReadService.getBook(BOOK_ID)).willThrow(new ResourceNotFoundException("not found"));
+
+        assertThatThrownBy(() -> bookDetailService.get(BOOK_ID, pageable, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
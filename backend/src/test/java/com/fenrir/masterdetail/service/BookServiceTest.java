@@ -1,22 +1,35 @@
 package com.fenrir.masterdetail.service;
 
+import com.fenrir.masterdetail.event.BookChangedEvent;
 import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.model.Author;
 import com.fenrir.masterdetail.model.Book;
+import com.fenrir.masterdetail.model.BookDescription;
+import com.fenrir.masterdetail.repository.BookDescriptionRepository;
 import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.search.GenreIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,6 +42,25 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookDescriptionRepository bookDescriptionRepository;
+
+    @Mock
+    private GenreService genreService;
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate =
+            new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private BookService bookService;
 
@@ -50,6 +82,54 @@ class BookServiceTest {
         Mockito.verify(bookRepository, Mockito.times(1)).findById(id);
     }
 
+    @Test
+    public void getById_should_load_description_of_book() {
+        final long id = 1L;
+        Book book = Book.builder()
+                .id(id)
+                .title("Title 1")
+                .build();
+
+        given(bookRepository.findById(id))
+                .willReturn(Optional.of(book));
+        given(bookDescriptionRepository.findById(id))
+                .willReturn(Optional.of(new BookDescription(id, "Description")));
+
+        Book actualBook = bookService.get(id);
+
+        assertThat(actualBook.getDescription())
+                .isEqualTo("Description");
+    }
+
+    @Test
+    public void update_should_remove_description_when_it_is_cleared() {
+        Book bookToUpdate = Book.builder()
+                .id(1L)
+                .title("Title")
+                .author(new Author("Author"))
+                .description("Desc")
+                .build();
+
+        Book updatedBook = Book.builder()
+                .title("Title")
+                .author(new Author("Author"))
+                .build();
+
+        given(bookRepository.findById(1L))
+                .willReturn(Optional.of(bookToUpdate));
+        given(authorService.resolve(updatedBook.getAuthor()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(bookRepository.saveAndFlush(bookToUpdate))
+                .willReturn(bookToUpdate);
+        given(bookDescriptionRepository.existsById(1L))
+                .willReturn(true);
+
+        bookService.update(1L, updatedBook);
+
+        Mockito.verify(bookDescriptionRepository, Mockito.times(1)).deleteById(1L);
+        Mockito.verify(bookDescriptionRepository, Mockito.never()).save(Mockito.any());
+    }
+
     @Test
     public void getById_should_throw_exception_when_given_wrong_id() {
         final long id = 1L;
@@ -104,22 +184,95 @@ class BookServiceTest {
         Mockito.verify(bookRepository, Mockito.times(1)).findAll(pageable);
     }
 
+    @Test
+    public void getAll_should_return_books_in_genre_index_order_when_filtering_by_genre() {
+        Book book1 = Book.builder()
+                .id(1L)
+                .title("Title 1")
+                .build();
+
+        Book book2 = Book.builder()
+                .id(2L)
+                .title("Title 2")
+                .build();
+
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "title"));
+        List<String> genres = List.of("fantasy");
+
+        given(genreService.findBookIds(genres, false, GenreIndex.Order.TITLE, true, 0, 2))
+                .willReturn(new GenreIndex.Result(List.of(2L, 1L), 5));
+        given(bookRepository.findAllById(List.of(2L, 1L)))
+                .willReturn(List.of(book1, book2));
+
+        Page<Book> actualPage = bookService.getAll(pageable, null, genres, false);
+
+        assertThat(actualPage.getContent())
+                .containsExactly(book2, book1);
+        assertThat(actualPage.getTotalElements())
+                .isEqualTo(5);
+        Mockito.verify(bookRepository, Mockito.never()).findAll(pageable);
+    }
+
+    @Test
+    public void getAll_should_join_genres_in_the_database_when_filtering_by_author() {
+        Book book = Book.builder()
+                .id(1L)
+                .title("Title 1")
+                .author(new Author("Author"))
+                .build();
+
+        Page<Book> expectedPage = new PageImpl<>(List.of(book));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        given(bookRepository.findAllByAuthorNameAndGenres("Author", Set.of("fantasy", "horror"), 2, pageable))
+                .willReturn(expectedPage);
+
+        Page<Book> actualPage = bookService.getAll(pageable, "Author", List.of("Fantasy", "horror"), true);
+
+        assertThat(actualPage)
+                .isEqualTo(expectedPage);
+        Mockito.verifyNoInteractions(genreService);
+    }
+
+    @Test
+    public void getAll_should_filter_by_author_when_no_genre_is_given() {
+        Book book = Book.builder()
+                .id(1L)
+                .title("Title 1")
+                .author(new Author("Author"))
+                .build();
+
+        Page<Book> expectedPage = new PageImpl<>(List.of(book));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        given(bookRepository.findAllByAuthorName("Author", pageable))
+                .willReturn(expectedPage);
+
+        Page<Book> actualPage = bookService.getAll(pageable, "Author", null, false);
+
+        assertThat(actualPage)
+                .isEqualTo(expectedPage);
+        Mockito.verifyNoInteractions(genreService);
+    }
+
     @Test
     public void create_should_create_new_book() {
         Book book = Book.builder()
                 .title("Title")
-                .author("Author")
+                .author(new Author("Author"))
                 .build();
 
         Book expectedBook = Book
                 .builder()
                 .id(1L)
                 .title("Title")
-                .author("Author")
+                .author(new Author("Author"))
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
 
+        given(authorService.resolve(book.getAuthor()))
+                .willAnswer(invocation -> invocation.getArgument(0));
         given(bookRepository.save(book))
                 .willReturn(expectedBook);
 
@@ -134,18 +287,20 @@ class BookServiceTest {
     public void create_should_ignore_id_when_saving_book() {
         Book book = Book.builder()
                 .title("Title")
-                .author("Author")
+                .author(new Author("Author"))
                 .build();
 
         Book expectedBook = Book
                 .builder()
                 .id(1L)
                 .title("Title")
-                .author("Author")
+                .author(new Author("Author"))
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
 
+        given(authorService.resolve(book.getAuthor()))
+                .willAnswer(invocation -> invocation.getArgument(0));
         given(bookRepository.save(book))
                 .willReturn(expectedBook);
 
@@ -163,7 +318,7 @@ class BookServiceTest {
         Book bookToUpdate = Book.builder()
                 .id(1L)
                 .title("Title")
-                .author("Author")
+                .author(new Author("Author"))
                 .description("Desc")
                 .cover("cover")
                 .updatedAt(LocalDateTime.of(2022, 11, 10, 0, 0, 0))
@@ -173,7 +328,7 @@ class BookServiceTest {
         Book updatedBook = Book
                 .builder()
                 .title("Title 2")
-                .author("Author 2")
+                .author(new Author("Author 2"))
                 .description("Desc 3")
                 .updatedAt(LocalDateTime.now())
                 .createdAt(LocalDateTime.of(2022, 11, 10, 0, 0, 0))
@@ -183,7 +338,7 @@ class BookServiceTest {
                 .builder()
                 .id(1L)
                 .title("Title 2")
-                .author("Author 2")
+                .author(new Author("Author 2"))
                 .description("Desc 3")
                 .cover(null)
                 .updatedAt(LocalDateTime.of(2022, 11, 10, 0, 0, 0))
@@ -192,7 +347,9 @@ class BookServiceTest {
 
         given(bookRepository.findById(1L))
                 .willReturn(Optional.of(bookToUpdate));
-        given(bookRepository.save(bookAfterUpdate))
+        given(authorService.resolve(updatedBook.getAuthor()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(bookRepository.saveAndFlush(bookAfterUpdate))
                 .willReturn(bookAfterUpdate);
 
         Book actualBook = bookService.update(1L, updatedBook);
@@ -200,7 +357,7 @@ class BookServiceTest {
         assertThat(actualBook)
                 .isEqualTo(bookAfterUpdate);
         Mockito.verify(bookRepository, Mockito.times(1)).findById(1L);
-        Mockito.verify(bookRepository, Mockito.times(1)).save(bookAfterUpdate);
+        Mockito.verify(bookRepository, Mockito.times(1)).saveAndFlush(bookAfterUpdate);
     }
 
     @Test
@@ -227,6 +384,23 @@ class BookServiceTest {
         Mockito.verify(bookRepository, Mockito.times(1)).delete(book);
     }
 
+    @Test
+    public void delete_should_publish_book_deleted_event() {
+        Book book = Book.builder().id(1L).build();
+        ArgumentCaptor<BookChangedEvent> event = ArgumentCaptor.forClass(BookChangedEvent.class);
+
+        given(bookRepository.findById(1L))
+                .willReturn(Optional.of(book));
+
+        bookService.delete(1L);
+
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getType())
+                .isEqualTo(BookChangedEvent.Type.DELETED);
+        assertThat(event.getValue().getBook())
+                .isEqualTo(book);
+    }
+
     @Test
     public void delete_should_throw_exception_given_wrong_id() {
         given(bookRepository.findById(1L))
@@ -0,0 +1,64 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.config.deadline.Deadline;
+import com.fenrir.masterdetail.config.deadline.DeadlineContext;
+import com.fenrir.masterdetail.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class HotReadServiceTest {
+    private static final Long BOOK_ID = 1L;
+    private static final Duration LOAD_TIMEOUT = Duration.ofSeconds(10);
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private ReviewService reviewService;
+
+    private HotReadService hotReadService;
+
+    @BeforeEach
+    public void setUp() {
+        hotReadService = new HotReadService(bookService, reviewService, Duration.ofMinutes(1), 100, LOAD_TIMEOUT);
+    }
+
+    @Test
+    public void getBook_should_load_under_default_deadline_instead_of_callers() {
+        AtomicLong loadRemainingNanos = new AtomicLong();
+        given(bookService.get(BOOK_ID)).willAnswer(invocation -> {
+            loadRemainingNanos.set(DeadlineContext.current().orElseThrow().remainingNanos());
+            return new Book();
+        });
+        Deadline callerDeadline = Deadline.after(Duration.ofMillis(50));
+
+        Deadline previous = DeadlineContext.enter(callerDeadline);
+        try {
+            hotReadService.getBook(BOOK_ID);
+            assertThat(DeadlineContext.current()).containsSame(callerDeadline);
+        } finally {
+            DeadlineContext.restore(previous);
+        }
+        assertThat(loadRemainingNanos.get()).isGreaterThan(Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    public void getBook_should_load_without_deadline_when_caller_has_none() {
+        given(bookService.get(BOOK_ID)).willAnswer(invocation -> {
+            assertThat(DeadlineContext.current()).isEmpty();
+            return new Book();
+        });
+
+        hotReadService.getBook(BOOK_ID);
+    }
+}
@@ -1,8 +1,14 @@
 package com.fenrir.masterdetail.service;
 
+import com.fenrir.masterdetail.dto.CursorPageDTO;
+import com.fenrir.masterdetail.dto.ReviewCursor;
 import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
 import com.fenrir.masterdetail.dto.StatisticsDTO;
 import com.fenrir.masterdetail.dto.mapper.ReviewMapper;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.exception.DuplicateReviewException;
+import com.fenrir.masterdetail.exception.PreconditionFailedException;
 import com.fenrir.masterdetail.exception.ResourceNotFoundException;
 import com.fenrir.masterdetail.model.Book;
 import com.fenrir.masterdetail.model.Review;
@@ -16,19 +22,31 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import javax.validation.Validator;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -47,6 +65,15 @@ class ReviewServiceTest {
     @Mock
     private ReviewMapper reviewMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ReviewWriteBehindService reviewWriteBehindService;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -57,6 +84,8 @@ class ReviewServiceTest {
     private User user;
     private Book book;
     private Review review;
+    private ReviewResponseDTO reviewResponse;
+    private ReviewResponseDTO.ReviewedBook reviewedBook;
 
     @BeforeEach
     public void setUp() {
@@ -81,25 +110,40 @@ class ReviewServiceTest {
                 .book(book)
                 .user(user)
                 .build();
+
+        this.reviewedBook = new ReviewResponseDTO.ReviewedBook(BOOK_ID, "Book_1", null);
+
+        this.reviewResponse = new ReviewResponseDTO(
+                USER_ID,
+                BOOK_ID,
+                null,
+                5,
+                0L,
+                LocalDateTime.of(2022, 1, 1, 1, 0, 0),
+                LocalDateTime.of(2022, 1, 1, 1, 0, 0),
+                USERNAME,
+                "Book_1",
+                null
+        );
     }
 
     @Test
     public void get_should_return_review_given_correct_username_and_bookId() {
-        given(reviewRepository.findByUser_UsernameAndBookId(USERNAME, BOOK_ID))
-                .willReturn(Optional.of(review));
+        given(reviewRepository.findResponseByUsernameAndBookId(USERNAME, BOOK_ID))
+                .willReturn(Optional.of(reviewResponse));
 
-        Review actualReview = reviewService.get(USERNAME, USER_ID);
+        ReviewResponseDTO actualReview = reviewService.get(USERNAME, USER_ID);
 
         assertThat(actualReview)
-                .isEqualTo(review);
-        verify(reviewRepository, times(1)).findByUser_UsernameAndBookId(USERNAME, BOOK_ID);
+                .isEqualTo(reviewResponse);
+        verify(reviewRepository, times(1)).findResponseByUsernameAndBookId(USERNAME, BOOK_ID);
     }
 
     @Test
     public void get_should_throw_exception_given_wrong_username() {
         final String wrongUsername = "Username";
 
-        given(reviewRepository.findByUser_UsernameAndBookId(wrongUsername, BOOK_ID))
+        given(reviewRepository.findResponseByUsernameAndBookId(wrongUsername, BOOK_ID))
                 .willReturn(Optional.empty());
 
         assertThatThrownBy(() -> reviewService.get(wrongUsername, BOOK_ID))
@@ -111,7 +155,7 @@ class ReviewServiceTest {
     public void get_should_throw_exception_given_wrong_book_id() {
         final long wrongBookId = 2L;
 
-        given(reviewRepository.findByUser_UsernameAndBookId(USERNAME, wrongBookId))
+        given(reviewRepository.findResponseByUsernameAndBookId(USERNAME, wrongBookId))
                 .willReturn(Optional.empty());
 
         assertThatThrownBy(() -> reviewService.get(USERNAME, wrongBookId))
@@ -121,70 +165,114 @@ class ReviewServiceTest {
 
     @Test
     public void getAll_should_return_all_user_reviews_when_given_correct_username() {
-        Page<Review> expectedPage = new PageImpl<>(List.of(review));
+        Page<ReviewResponseDTO> expectedPage = new PageImpl<>(List.of(reviewResponse));
         Pageable pageable = PageRequest.of(1, 10);
 
-        given(reviewRepository.findAllByUser_Username(USERNAME, pageable))
+        given(reviewRepository.findResponsesByUsername(USERNAME, pageable))
                 .willReturn(expectedPage);
 
-        Page<Review> actualPage = reviewService.getAll(USERNAME, pageable);
+        Page<ReviewResponseDTO> actualPage = reviewService.getAll(USERNAME, pageable);
 
         assertThat(actualPage)
                 .isEqualTo(expectedPage);
-        verify(reviewRepository, times(1)).findAllByUser_Username(USERNAME, pageable);
+        verify(reviewRepository, times(1)).findResponsesByUsername(USERNAME, pageable);
     }
 
     @Test
     public void getAll_should_return_empty_page_when_given_wrong_username() {
         final String wrongUsername = "Username";
 
-        Page<Review> expectedPage = new PageImpl<>(List.of());
+        Page<ReviewResponseDTO> expectedPage = new PageImpl<>(List.of());
         Pageable pageable = PageRequest.of(1, 10);
 
-        given(reviewRepository.findAllByUser_Username(wrongUsername, pageable))
+        given(reviewRepository.findResponsesByUsername(wrongUsername, pageable))
                 .willReturn(expectedPage);
 
-        Page<Review> actualPage = reviewService.getAll(wrongUsername, pageable);
+        Page<ReviewResponseDTO> actualPage = reviewService.getAll(wrongUsername, pageable);
 
         assertThat(actualPage)
                 .isEqualTo(expectedPage);
         assertThat(actualPage.get())
                 .isEmpty();
-        verify(reviewRepository, times(1)).findAllByUser_Username(wrongUsername, pageable);
+        verify(reviewRepository, times(1)).findResponsesByUsername(wrongUsername, pageable);
     }
 
     @Test
     public void getAll_should_return_all_book_reviews_when_given_correct_bookId() {
-        Page<Review> expectedPage = new PageImpl<>(List.of(review));
+        Page<ReviewResponseDTO> expectedPage = new PageImpl<>(List.of(reviewResponse));
         Pageable pageable = PageRequest.of(1, 10);
 
-        given(reviewRepository.findAllByBook_Id(BOOK_ID, pageable))
+        given(reviewRepository.findResponsesByBookId(BOOK_ID, pageable))
                 .willReturn(expectedPage);
 
-        Page<Review> actualPage = reviewService.getAll(BOOK_ID, pageable);
+        Page<ReviewResponseDTO> actualPage = reviewService.getAll(BOOK_ID, pageable);
 
         assertThat(actualPage)
                 .isEqualTo(expectedPage);
-        verify(reviewRepository, times(1)).findAllByBook_Id(BOOK_ID, pageable);
+        verify(reviewRepository, times(1)).findResponsesByBookId(BOOK_ID, pageable);
     }
 
     @Test
     public void getAll_should_return_empty_page_when_given_wrong_bookId() {
         final long bookId = 1L;
 
-        Page<Review> expectedPage = new PageImpl<>(List.of());
+        Page<ReviewResponseDTO> expectedPage = new PageImpl<>(List.of());
         Pageable pageable = PageRequest.of(1, 10);
 
-        given(reviewRepository.findAllByBook_Id(bookId, pageable))
+        given(reviewRepository.findResponsesByBookId(bookId, pageable))
                 .willReturn(expectedPage);
 
-        Page<Review> actualPage = reviewService.getAll(bookId, pageable);
+        Page<ReviewResponseDTO> actualPage = reviewService.getAll(bookId, pageable);
 
         assertThat(actualPage)
                 .isEqualTo(expectedPage);
         assertThat(actualPage.get())
                 .isEmpty();
-        verify(reviewRepository, times(1)).findAllByBook_Id(bookId, pageable);
+        verify(reviewRepository, times(1)).findResponsesByBookId(bookId, pageable);
+    }
+
+    @Test
+    public void getBookTimeline_should_return_first_slice_when_no_cursor_given() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Slice<ReviewResponseDTO> slice = new SliceImpl<>(List.of(reviewResponse), pageable, false);
+        CursorPageDTO<ReviewResponseDTO> expectedPage = new CursorPageDTO<>(List.of(reviewResponse), 20, false, null);
+
+        given(reviewRepository.findBookTimeline(BOOK_ID, pageable))
+                .willReturn(slice);
+        given(reviewMapper.toCursorPageDTO(any(), any()))
+                .willReturn(expectedPage);
+
+        CursorPageDTO<ReviewResponseDTO> actualPage = reviewService.getBookTimeline(BOOK_ID, null, 20);
+
+        assertThat(actualPage)
+                .isEqualTo(expectedPage);
+        verify(reviewRepository, times(1)).findBookTimeline(BOOK_ID, pageable);
+    }
+
+    @Test
+    public void getBookTimeline_should_seek_past_cursor_when_cursor_given() {
+        LocalDateTime createdAt = LocalDateTime.of(2022, 1, 1, 1, 0, 0);
+        String cursor = new ReviewCursor(createdAt, USER_ID).encode();
+        Pageable pageable = PageRequest.of(0, 100);
+
+        given(reviewRepository.findBookTimelineBefore(BOOK_ID, createdAt, USER_ID, pageable))
+                .willReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        reviewService.getBookTimeline(BOOK_ID, cursor, 1000);
+
+        verify(reviewRepository, times(1)).findBookTimelineBefore(BOOK_ID, createdAt, USER_ID, pageable);
+    }
+
+    @Test
+    public void getUserTimeline_should_not_query_reviews_when_given_wrong_username() {
+        final String wrongUsername = "Username";
+
+        given(userRepository.findIdByUsername(wrongUsername))
+                .willReturn(Optional.empty());
+
+        reviewService.getUserTimeline(wrongUsername, null, 20);
+
+        verify(reviewRepository, never()).findUserTimeline(anyLong(), any());
     }
 
     @Test
@@ -226,51 +314,112 @@ class ReviewServiceTest {
                 .user(user)
                 .build();
 
-        given(userRepository.findByUsername(USERNAME))
-                .willReturn(Optional.of(user));
-        given(bookRepository.findById(BOOK_ID))
-                .willReturn(Optional.of(book));
-        given(reviewMapper.fromReviewRequestDTO(reviewRequestDTO, user, book))
+        given(userRepository.findIdByUsername(USERNAME))
+                .willReturn(Optional.of(USER_ID));
+        given(bookRepository.findReviewedBookById(BOOK_ID))
+                .willReturn(Optional.of(reviewedBook));
+        given(reviewMapper.fromReviewRequestDTO(reviewRequestDTO, USER_ID, BOOK_ID))
                 .willReturn(newReview);
-        given(reviewRepository.save(newReview))
+        given(reviewRepository.saveAndFlush(newReview))
                 .willReturn(savedReview);
+        given(reviewMapper.toReviewResponseDTO(savedReview, USERNAME, reviewedBook))
+                .willReturn(reviewResponse);
 
-        Review actualReview = reviewService.create(reviewRequestDTO, USERNAME, BOOK_ID);
+        ReviewResponseDTO actualReview = reviewService.create(reviewRequestDTO, USERNAME, BOOK_ID);
 
         assertThat(actualReview)
-                .isEqualTo(savedReview);
-        verify(userRepository, times(1)).findByUsername(USERNAME);
-        verify(bookRepository, times(1)).findById(BOOK_ID);
-        verify(reviewMapper, times(1)).fromReviewRequestDTO(reviewRequestDTO, user, book);
-        verify(reviewRepository, times(1)).save(newReview);
+                .isEqualTo(reviewResponse);
+        verify(userRepository, times(1)).findIdByUsername(USERNAME);
+        verify(bookRepository, times(1)).findReviewedBookById(BOOK_ID);
+        verify(reviewMapper, times(1)).fromReviewRequestDTO(reviewRequestDTO, USER_ID, BOOK_ID);
+        verify(reviewRepository, times(1)).saveAndFlush(newReview);
+    }
+
+    @Test
+    public void create_should_throw_exception_when_review_already_exists() {
+        ReviewRequestDTO reviewRequestDTO = new ReviewRequestDTO(null, 5);
+        Review newReview = new Review(new Review.Id(USER_ID, BOOK_ID), null, 5);
+
+        given(userRepository.findIdByUsername(USERNAME))
+                .willReturn(Optional.of(USER_ID));
+        given(bookRepository.findReviewedBookById(BOOK_ID))
+                .willReturn(Optional.of(reviewedBook));
+        given(reviewMapper.fromReviewRequestDTO(reviewRequestDTO, USER_ID, BOOK_ID))
+                .willReturn(newReview);
+        given(reviewRepository.saveAndFlush(newReview))
+                .willThrow(new DataIntegrityViolationException("PRIMARY KEY", new SQLException("Duplicate", "23505")));
+
+        assertThatThrownBy(() -> reviewService.create(reviewRequestDTO, USERNAME, BOOK_ID))
+                .isInstanceOf(DuplicateReviewException.class)
+                .hasMessage(String.format("Review already exists for user=%s and bookId=%s", USERNAME, BOOK_ID))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    public void create_should_recognize_mysql_duplicate_entry() {
+        ReviewRequestDTO reviewRequestDTO = new ReviewRequestDTO(null, 5);
+        Review newReview = new Review(new Review.Id(USER_ID, BOOK_ID), null, 5);
+
+        given(userRepository.findIdByUsername(USERNAME))
+                .willReturn(Optional.of(USER_ID));
+        given(bookRepository.findReviewedBookById(BOOK_ID))
+                .willReturn(Optional.of(reviewedBook));
+        given(reviewMapper.fromReviewRequestDTO(reviewRequestDTO, USER_ID, BOOK_ID))
+                .willReturn(newReview);
+        given(reviewRepository.saveAndFlush(newReview))
+                .willThrow(new DataIntegrityViolationException(
+                        "Duplicate entry", new SQLException("Duplicate entry", "23000", 1062)));
+
+        assertThatThrownBy(() -> reviewService.create(reviewRequestDTO, USERNAME, BOOK_ID))
+                .isInstanceOf(DuplicateReviewException.class);
+    }
+
+    @Test
+    public void create_should_rethrow_other_integrity_violations() {
+        ReviewRequestDTO reviewRequestDTO = new ReviewRequestDTO(null, 5);
+        Review newReview = new Review(new Review.Id(USER_ID, BOOK_ID), null, 5);
+        DataIntegrityViolationException foreignKeyViolation = new DataIntegrityViolationException(
+                "book_id_FK", new SQLException("Referential integrity constraint violation", "23000", 1452));
+
+        given(userRepository.findIdByUsername(USERNAME))
+                .willReturn(Optional.of(USER_ID));
+        given(bookRepository.findReviewedBookById(BOOK_ID))
+                .willReturn(Optional.of(reviewedBook));
+        given(reviewMapper.fromReviewRequestDTO(reviewRequestDTO, USER_ID, BOOK_ID))
+                .willReturn(newReview);
+        given(reviewRepository.saveAndFlush(newReview))
+                .willThrow(foreignKeyViolation);
+
+        assertThatThrownBy(() -> reviewService.create(reviewRequestDTO, USERNAME, BOOK_ID))
+                .isSameAs(foreignKeyViolation);
     }
 
     @Test
     public void create_should_throw_exception_when_given_wrong_username() {
         final String wrongUsername = "User";
 
-        given(userRepository.findByUsername(wrongUsername))
+        given(userRepository.findIdByUsername(wrongUsername))
                 .willReturn(Optional.empty());
 
         assertThatThrownBy(() -> reviewService.create(new ReviewRequestDTO(null, 5), wrongUsername, BOOK_ID))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("User was not found for username=%s", wrongUsername));
-        verify(userRepository, times(1)).findByUsername(wrongUsername);
+        verify(userRepository, times(1)).findIdByUsername(wrongUsername);
     }
 
     @Test
     public void create_should_throw_exception_when_given_wrong_bookId() {
         final long wrongBookId = 2L;
 
-        given(userRepository.findByUsername(USERNAME))
-                .willReturn(Optional.of(user));
-        given(bookRepository.findById(wrongBookId))
+        given(userRepository.findIdByUsername(USERNAME))
+                .willReturn(Optional.of(USER_ID));
+        given(bookRepository.findReviewedBookById(wrongBookId))
                 .willReturn(Optional.empty());
 
         assertThatThrownBy(() -> reviewService.create(new ReviewRequestDTO(null, 5), USERNAME, wrongBookId))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("Book was not found for id=%s", wrongBookId));
-        verify(bookRepository, times(1)).findById(wrongBookId);
+        verify(bookRepository, times(1)).findReviewedBookById(wrongBookId);
     }
 
     @Test
@@ -297,15 +446,51 @@ class ReviewServiceTest {
                 .willReturn(Optional.of(reviewToUpdate));
         given(reviewRepository.save(reviewAfterUpdate))
                 .willReturn(reviewAfterUpdate);
+        given(reviewMapper.toReviewedBook(book))
+                .willReturn(reviewedBook);
+        given(reviewMapper.toReviewResponseDTO(reviewAfterUpdate, USERNAME, reviewedBook))
+                .willReturn(reviewResponse);
 
-        Review actualReview = reviewService.update(reviewRequestDTO, USERNAME, BOOK_ID);
+        ReviewResponseDTO actualReview = reviewService.update(reviewRequestDTO, USERNAME, BOOK_ID);
 
         assertThat(actualReview)
-                .isEqualTo(reviewAfterUpdate);
+                .isEqualTo(reviewResponse);
         verify(reviewRepository, times(1)).findByUser_UsernameAndBookId(USERNAME, BOOK_ID);
         verify(reviewRepository, times(1)).save(reviewAfterUpdate);
     }
 
+    @Test
+    public void update_should_apply_conditional_update_in_one_statement() {
+        ReviewRequestDTO reviewRequestDTO = new ReviewRequestDTO("content", 4);
+
+        given(reviewRepository.updateIfVersionMatches(
+                eq(USERNAME), eq(BOOK_ID), eq(0L), eq("content"), eq(4), any(LocalDateTime.class)))
+                .willReturn(1);
+        given(reviewRepository.findResponseByUsernameAndBookId(USERNAME, BOOK_ID))
+                .willReturn(Optional.of(reviewResponse));
+
+        ReviewResponseDTO actualReview = reviewService.update(reviewRequestDTO, USERNAME, BOOK_ID, 0L);
+
+        assertThat(actualReview)
+                .isEqualTo(reviewResponse);
+        verify(reviewRepository, never()).findByUser_UsernameAndBookId(USERNAME, BOOK_ID);
+        verify(eventPublisher, times(1)).publishEvent(any(ReviewsChangedEvent.class));
+    }
+
+    @Test
+    public void update_should_throw_exception_when_version_has_changed() {
+        given(reviewRepository.updateIfVersionMatches(
+                eq(USERNAME), eq(BOOK_ID), eq(3L), any(), eq(4), any(LocalDateTime.class)))
+                .willReturn(0);
+        given(reviewRepository.findResponseByUsernameAndBookId(USERNAME, BOOK_ID))
+                .willReturn(Optional.of(reviewResponse));
+
+        assertThatThrownBy(() -> reviewService.update(new ReviewRequestDTO(null, 4), USERNAME, BOOK_ID, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage(String.format("Review for user=%s and bookId=%s has version 0, not 3", USERNAME, BOOK_ID));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     public void update_should_throw_exception_when_given_wrong_username() {
         final String wrongUsername = "User";
@@ -340,6 +525,20 @@ class ReviewServiceTest {
 
         verify(reviewRepository, times(1)).findByUser_UsernameAndBookId(USERNAME, BOOK_ID);
         verify(reviewRepository, times(1)).delete(review);
+        verify(eventPublisher).publishEvent(
+                argThat((ReviewsChangedEvent event) -> event.getBookIds().equals(Set.of(BOOK_ID))));
+    }
+
+    @Test
+    public void delete_should_wait_for_queued_writes_to_review() {
+        given(userRepository.findIdByUsername(USERNAME)).willReturn(Optional.of(USER_ID));
+        given(reviewRepository.findByUser_UsernameAndBookId(USERNAME, BOOK_ID))
+                .willReturn(Optional.of(review));
+
+        reviewService.delete(USERNAME, BOOK_ID);
+
+        verify(reviewWriteBehindService).awaitSettled(new Review.Id(USER_ID, BOOK_ID));
+        verify(reviewRepository).delete(review);
     }
 
     @Test
@@ -0,0 +1,283 @@
+package com.fenrir.masterdetail.service;
+
+import com.fenrir.masterdetail.dto.ReviewRequestDTO;
+import com.fenrir.masterdetail.dto.ReviewResponseDTO;
+import com.fenrir.masterdetail.dto.ReviewWriteAcceptedDTO;
+import com.fenrir.masterdetail.event.ReviewsChangedEvent;
+import com.fenrir.masterdetail.exception.DuplicateReviewException;
+import com.fenrir.masterdetail.exception.ResourceNotFoundException;
+import com.fenrir.masterdetail.exception.WriteFailedException;
+import com.fenrir.masterdetail.exception.WriteNotAppliedException;
+import com.fenrir.masterdetail.exception.WriteQueueFullException;
+import com.fenrir.masterdetail.model.Review;
+import com.fenrir.masterdetail.repository.BookRepository;
+import com.fenrir.masterdetail.repository.ReviewRepository;
+import com.fenrir.masterdetail.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReviewWriteBehindServiceTest {
+    private static final String USERNAME = "user123";
+    private static final Long USER_ID = 1L;
+    private static final Long BOOK_ID = 2L;
+    private static final Review.Id REVIEW_ID = new Review.Id(USER_ID, BOOK_ID);
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcTemplate batchJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final CountDownLatch flushing = new CountDownLatch(1);
+    private final CountDownLatch releaseFlush = new CountDownLatch(1);
+    private ReviewWriteBehindService service;
+
+    @BeforeEach
+    public void setUp() {
+        given(userRepository.findIdByUsername(USERNAME)).willReturn(Optional.of(USER_ID));
+        given(bookRepository.findReviewedBookById(any()))
+                .willReturn(Optional.of(new ReviewResponseDTO.ReviewedBook(BOOK_ID, "Title", null)));
+        given(jdbcTemplate.getJdbcTemplate()).willReturn(batchJdbcTemplate);
+        given(batchJdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).willAnswer(invocation -> {
+            int[] counts = new int[invocation.<Collection<?>>getArgument(1).size()];
+            Arrays.fill(counts, 1);
+            return new int[][] { counts };
+        });
+        given(transactionManager.getTransaction(any())).willAnswer(invocation -> {
+            flushing.countDown();
+            releaseFlush.await(5, TimeUnit.SECONDS);
+            return new SimpleTransactionStatus();
+        });
+        service = startService(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        releaseFlush.countDown();
+        service.stop();
+    }
+
+    @Test
+    public void create_should_reject_invalid_review_before_queueing() {
+        assertThatThrownBy(() -> service.create(new ReviewRequestDTO("content", 6), USERNAME, BOOK_ID))
+                .isInstanceOf(ConstraintViolationException.class);
+        assertThatThrownBy(() -> service.create(new ReviewRequestDTO("content", null), USERNAME, BOOK_ID))
+                .isInstanceOf(ConstraintViolationException.class);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void create_should_reject_review_that_is_already_queued() {
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+
+        assertThatThrownBy(() -> service.create(new ReviewRequestDTO("content", 5), USERNAME, BOOK_ID))
+                .isInstanceOf(DuplicateReviewException.class);
+    }
+
+    @Test
+    public void create_should_reject_review_that_already_exists() {
+        given(reviewRepository.existsById(REVIEW_ID)).willReturn(true);
+
+        assertThatThrownBy(() -> service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID))
+                .isInstanceOf(DuplicateReviewException.class);
+    }
+
+    @Test
+    public void update_should_accept_review_that_is_still_queued() {
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+
+        ReviewWriteAcceptedDTO accepted = service.update(new ReviewRequestDTO("changed", 5), USERNAME, BOOK_ID);
+
+        assertThat(accepted.getToken()).isNotBlank();
+        assertThat(accepted.getBookId()).isEqualTo(BOOK_ID);
+    }
+
+    @Test
+    public void update_should_fail_when_review_does_not_exist() {
+        assertThatThrownBy(() -> service.update(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void create_should_push_back_when_queue_is_full() throws Exception {
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, 3L);
+
+        assertThatThrownBy(() -> service.create(new ReviewRequestDTO("content", 4), USERNAME, 4L))
+                .isInstanceOf(WriteQueueFullException.class);
+        // A rejected write does not block a later retry for the same review
+        releaseFlush.countDown();
+        verify(eventPublisher, timeout(5000)).publishEvent(changedBooks(3L));
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, 4L);
+    }
+
+    @Test
+    public void awaitApplied_should_wait_for_flush() throws Exception {
+        String token = service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID).getToken();
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.awaitApplied(token)).isInstanceOf(WriteNotAppliedException.class);
+        releaseFlush.countDown();
+        service.awaitApplied(token);
+        verify(eventPublisher, timeout(5000)).publishEvent(changedBooks(BOOK_ID));
+    }
+
+    @Test
+    public void awaitApplied_should_report_write_that_was_dropped() {
+        given(batchJdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .willThrow(new DataIntegrityViolationException("rejected"));
+        String token = service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID).getToken();
+        releaseFlush.countDown();
+
+        assertThatThrownBy(() -> service.awaitApplied(token)).isInstanceOf(WriteFailedException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void flush_should_insert_created_review_that_was_updated_while_queued() throws Exception {
+        service.stop();
+        service = startService(10);
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, 3L);
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+        String token = service.update(new ReviewRequestDTO("changed", 5), USERNAME, BOOK_ID).getToken();
+        releaseFlush.countDown();
+
+        service.awaitApplied(token);
+        verify(batchJdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any());
+        verify(batchJdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    public void flush_should_drop_update_of_review_deleted_while_queued() {
+        given(reviewRepository.existsById(REVIEW_ID)).willReturn(true);
+        String token = service.update(new ReviewRequestDTO("changed", 5), USERNAME, BOOK_ID).getToken();
+        releaseFlush.countDown();
+
+        assertThatThrownBy(() -> service.awaitApplied(token))
+                .isInstanceOf(WriteFailedException.class)
+                .hasMessageContaining("no longer exists");
+        verify(batchJdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    public void awaitSettled_should_wait_for_queued_writes_to_review() throws Exception {
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.awaitSettled(REVIEW_ID)).isInstanceOf(WriteNotAppliedException.class);
+        releaseFlush.countDown();
+        service.awaitSettled(REVIEW_ID);
+        service.awaitSettled(new Review.Id(USER_ID, 3L));
+    }
+
+    @Test
+    public void stop_should_wait_for_writes_queued_behind_slow_flush() throws Exception {
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        String token = service.create(new ReviewRequestDTO("content", 4), USERNAME, 3L).getToken();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            releaseFlush.countDown();
+        });
+        releaser.start();
+
+        service.stop();
+
+        verify(eventPublisher).publishEvent(changedBooks(BOOK_ID));
+        verify(eventPublisher).publishEvent(changedBooks(3L));
+        service.awaitApplied(token);
+    }
+
+    @Test
+    public void awaitApplied_should_not_wait_for_foreign_tokens() {
+        service.awaitApplied(null);
+        service.awaitApplied("unknown.1");
+        service.awaitApplied("malformed");
+    }
+
+    @Test
+    public void stop_should_drain_queued_writes() {
+        service.create(new ReviewRequestDTO("content", 4), USERNAME, BOOK_ID);
+        releaseFlush.countDown();
+
+        service.stop();
+
+        assertThat(service.isRunning()).isFalse();
+        verify(eventPublisher).publishEvent(changedBooks(BOOK_ID));
+        assertThatThrownBy(() -> service.create(new ReviewRequestDTO("content", 4), USERNAME, 3L))
+                .isInstanceOf(WriteQueueFullException.class);
+    }
+
+    private ReviewWriteBehindService startService(int queueCapacity) {
+        ReviewWriteBehindService writeBehindService = new ReviewWriteBehindService(
+                reviewRepository, bookRepository, userRepository, jdbcTemplate, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher,
+                true, queueCapacity, 500, Duration.ofMillis(50), Duration.ofMillis(200)
+        );
+        writeBehindService.start();
+        return writeBehindService;
+    }
+
+    private static ReviewsChangedEvent changedBooks(Long... bookIds) {
+        return argThat(event -> event.getBookIds().equals(Set.of(bookIds)));
+    }
+}
@@ -1,16 +1,23 @@
 DELETE
 FROM book;
 
-INSERT INTO book (id, author, cover, created_at, description, title, updated_at)
-VALUES (101, 'George R.R. Martin',
+INSERT INTO book (id, author_id, cover, created_at, title, updated_at)
+VALUES (101, (SELECT id FROM author WHERE name = 'George R.R. Martin'),
         'https://images-na.ssl-images-amazon.com/images/S/compressed.photo.goodreads.com/books/1562726234i/13496.jpg',
         '2022-05-26 15:32:09.908486',
-        'description',
         'A Game of Thrones', '2022-05-26 15:32:09.909206');
 
-INSERT INTO book (id, author, cover, created_at, description, title, updated_at)
-VALUES (102, 'James S.A. Corey',
+INSERT INTO book_description (book_id, description)
+VALUES (101, STRINGTOUTF8('description'));
+
+INSERT INTO book (id, author_id, cover, created_at, title, updated_at)
+VALUES (102, (SELECT id FROM author WHERE name = 'James S.A. Corey'),
         'https://images-na.ssl-images-amazon.com/images/S/compressed.photo.goodreads.com/books/1407572377i/12591698.jpg',
         '2022-05-26 15:32:09.959447',
-        'description',
-        'Calibans War', '2022-05-26 15:32:09.959472');
\ No newline at end of file
+        'Calibans War', '2022-05-26 15:32:09.959472');
+
+INSERT INTO book_description (book_id, description)
+VALUES (102, STRINGTOUTF8('description'));
+
+INSERT INTO book_genre (book_id, genre_id)
+VALUES (101, 1);
\ No newline at end of file
@@ -0,0 +1,26 @@
+DELETE
+FROM book_genre;
+
+DELETE
+FROM genre;
+
+DELETE
+FROM book;
+
+INSERT INTO genre (id, name)
+VALUES (101, 'fantasy');
+
+INSERT INTO genre (id, name)
+VALUES (102, 'science-fiction');
+
+INSERT INTO book (id, author_id, cover, created_at, title, updated_at)
+VALUES (101, (SELECT id FROM author WHERE name = 'George R.R. Martin'),
+        'https://images-na.ssl-images-amazon.com/images/S/compressed.photo.goodreads.com/books/1562726234i/13496.jpg',
+        '2022-05-26 15:32:09.908486',
+        'A Game of Thrones', '2022-05-26 15:32:09.909206');
+
+INSERT INTO book_description (book_id, description)
+VALUES (101, STRINGTOUTF8('description'));
+
+INSERT INTO book_genre (book_id, genre_id)
+VALUES (101, 101);
@@ -10,6 +10,10 @@ class BookService {
         return http.get(`/books/${id}`)
     }
 
+    getDetail(id, page, size) {
+        return http.get(`/books/${id}/detail?page=${page}&size=${size}`, { headers: authHeader() })
+    }
+
     create(data) {
         console.log(authHeader())
         return http.post('/books', data, { headers: authHeader() })